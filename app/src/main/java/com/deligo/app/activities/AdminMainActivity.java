@@ -5,6 +5,7 @@ import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
@@ -17,9 +18,22 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import com.deligo.app.R;
+import com.deligo.app.repositories.MigrationRepository;
+import com.deligo.app.repositories.MigrationRepositoryImpl;
 import com.deligo.app.repositories.OrderRepository;
 import com.deligo.app.repositories.OrderRepositoryImpl;
+import com.deligo.app.repositories.ReviewRepository;
+import com.deligo.app.repositories.ReviewRepositoryImpl;
+import com.deligo.app.repositories.StatisticsRepository;
+import com.deligo.app.repositories.StatisticsRepositoryImpl;
+import com.deligo.app.utils.Constants;
 import com.deligo.app.views.BadgeView;
 
 /**
@@ -28,8 +42,19 @@ import com.deligo.app.views.BadgeView;
 public class AdminMainActivity extends AppCompatActivity {
     private static final String CHANNEL_ID = "admin_orders_channel";
     private static final int NOTIFICATION_ID = 1001;
+    private static final String PREFS_MIGRATIONS = "migrations";
+    private static final String KEY_ORDER_STATUS_CODES = "order_status_codes";
+    private static final String KEY_ORDER_ITEMS = "order_items";
+    private static final String KEY_DAILY_STATS = "daily_stats";
+    private static final String KEY_SOLD_COUNTS = "sold_counts";
+    // Review eligibility reads this one from meta/migrations
+    private static final String KEY_PURCHASES = Constants.MIGRATION_PURCHASES;
+    private static final String KEY_RATING_AGGREGATES = "rating_aggregates";
     
     private OrderRepository orderRepository;
+    private StatisticsRepository statisticsRepository;
+    private ReviewRepository reviewRepository;
+    private MigrationRepository migrationRepository;
     private BadgeView badgePendingOrders;
     private int previousPendingCount = 0;
     private ActivityResultLauncher<String> requestPermissionLauncher;
@@ -40,15 +65,104 @@ public class AdminMainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_admin_main);
 
         orderRepository = new OrderRepositoryImpl();
+        statisticsRepository = new StatisticsRepositoryImpl();
+        reviewRepository = new ReviewRepositoryImpl();
+        migrationRepository = new MigrationRepositoryImpl();
         badgePendingOrders = findViewById(R.id.badgePendingOrders);
 
         setupPermissionLauncher();
         createNotificationChannel();
         requestNotificationPermission();
         setupNavigationButtons();
+        runMigrations();
         setupOrderListener();
     }
 
+    // A one-off data migration that calls back once it has finished
+    private interface Migration {
+        void run(MigrationCallback callback);
+    }
+
+    // Each repository declares its own ActionCallback; this one fits all of them
+    private static final class MigrationCallback implements OrderRepository.ActionCallback,
+            StatisticsRepository.ActionCallback, ReviewRepository.ActionCallback, MigrationRepository.ActionCallback {
+        private final Runnable onDone;
+
+        MigrationCallback(Runnable onDone) {
+            this.onDone = onDone;
+        }
+
+        @Override
+        public void onSuccess() {
+            onDone.run();
+        }
+
+        @Override
+        public void onError(String message) {
+            // Retried on the next launch, together with the migrations after it
+        }
+    }
+
+    // One-off per install, in this order: the backfills rely on the status codes, which orders
+    // written before them lack
+    private void runMigrations() {
+        Map<String, Migration> migrations = new LinkedHashMap<>();
+        migrations.put(KEY_ORDER_STATUS_CODES, orderRepository::migrateStatusCodes);
+        // Legacy orders are read from their orderDetails subcollection until this has run;
+        // the backfills below also read fewer documents after it
+        migrations.put(KEY_ORDER_ITEMS, orderRepository::backfillOrderItems);
+        // Rollups only count orders placed after they were introduced until this has run
+        migrations.put(KEY_DAILY_STATS, statisticsRepository::backfillDailyStats);
+        // soldCount only follows orders completed after it was introduced until this has run
+        migrations.put(KEY_SOLD_COUNTS, statisticsRepository::rebuildSoldCounts);
+        // Customers' review eligibility falls back to scanning their orders until this has run
+        migrations.put(KEY_PURCHASES, statisticsRepository::rebuildPurchases);
+        // Foods show no rating for reviews written before the rating aggregates until this has run
+        migrations.put(KEY_RATING_AGGREGATES, reviewRepository::rebuildRatingAggregates);
+
+        // Once this install has seen every migration finish there is nothing to look up
+        SharedPreferences prefs = getSharedPreferences(PREFS_MIGRATIONS, MODE_PRIVATE);
+        boolean allDone = true;
+        for (String key : migrations.keySet()) {
+            allDone &= prefs.getBoolean(key, false);
+        }
+        if (allDone) {
+            return;
+        }
+
+        // Completion is shared in meta/migrations, so another admin device or a reinstall doesn't
+        // download the collections again and overwrite counters that live orders are incrementing
+        migrationRepository.getCompletedMigrations(new MigrationRepository.DataCallback<Set<String>>() {
+            @Override
+            public void onSuccess(Set<String> completed) {
+                runMigrations(new ArrayList<>(migrations.entrySet()), 0, completed);
+            }
+
+            @Override
+            public void onError(String message) {
+                // Retried on the next launch
+            }
+        });
+    }
+
+    private void runMigrations(List<Map.Entry<String, Migration>> migrations, int index, Set<String> completed) {
+        if (index >= migrations.size()) {
+            return;
+        }
+        SharedPreferences prefs = getSharedPreferences(PREFS_MIGRATIONS, MODE_PRIVATE);
+        String key = migrations.get(index).getKey();
+        if (prefs.getBoolean(key, false) || completed.contains(key)) {
+            prefs.edit().putBoolean(key, true).apply();
+            runMigrations(migrations, index + 1, completed);
+            return;
+        }
+        migrations.get(index).getValue().run(new MigrationCallback(() ->
+                migrationRepository.markMigrationDone(key, new MigrationCallback(() -> {
+                    prefs.edit().putBoolean(key, true).apply();
+                    runMigrations(migrations, index + 1, completed);
+                }))));
+    }
+
     private void setupPermissionLauncher() {
         requestPermissionLauncher = registerForActivityResult(
                 new ActivityResultContracts.RequestPermission(),
@@ -19,6 +19,7 @@ import com.deligo.app.constants.OrderStatus;
 import com.deligo.app.constants.PaymentStatus;
 import com.deligo.app.models.Order;
 import com.deligo.app.utils.CurrencyUtils;
+import com.deligo.app.utils.OrderStatusUtils;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.AdminOrderViewModel;
 import androidx.appcompat.widget.Toolbar;
@@ -136,13 +137,21 @@ public class AdminOrderDetailActivity extends AppCompatActivity {
             }
         });
 
+        // Another admin changed the order first
+        viewModel.getConflictOrder().observe(this, order -> {
+            if (order != null) {
+                Toast.makeText(this, getString(R.string.toast_order_conflict,
+                        OrderStatusUtils.getLabel(this, order)), Toast.LENGTH_SHORT).show();
+                viewModel.resetConflictOrder();
+            }
+        });
+
         // Observe action success
         viewModel.getActionSuccess().observe(this, success -> {
             if (success != null && success) {
                 Toast.makeText(this, getString(R.string.toast_order_updated), Toast.LENGTH_SHORT).show();
                 viewModel.resetActionSuccess();
-                // Reload order details
-                viewModel.loadOrderDetails(orderId);
+                // The ViewModel already holds the updated order, so there is nothing to reload
             }
         });
 
@@ -157,7 +166,7 @@ public class AdminOrderDetailActivity extends AppCompatActivity {
         SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
         tvOrderDate.setText(getString(R.string.label_date, dateFormat.format(new Date(order.getCreatedAt()))));
 
-        tvOrderStatus.setText(getString(R.string.label_status, capitalizeFirst(order.getOrderStatus())));
+        tvOrderStatus.setText(getString(R.string.label_status, OrderStatusUtils.getLabel(this, order)));
         tvPaymentStatus.setText(getString(R.string.label_payment, capitalizeFirst(order.getPaymentStatus())));
         tvPaymentMethod.setText(getString(R.string.label_payment_method, order.getPaymentMethod()));
         
@@ -190,7 +199,7 @@ public class AdminOrderDetailActivity extends AppCompatActivity {
     }
 
     private void configureButtons(Order order) {
-        String status = order.getOrderStatus();
+        OrderStatus status = order.getStatus();
 
         // Hide all buttons first
         btnAccept.setVisibility(View.GONE);
@@ -198,19 +207,19 @@ public class AdminOrderDetailActivity extends AppCompatActivity {
         btnComplete.setVisibility(View.GONE);
         btnCancel.setVisibility(View.GONE);
 
-        // Show appropriate buttons based on status (Vietnamese)
+        // Show appropriate buttons based on status
         if (status == null) return;
         
-        if (OrderStatus.PENDING.matches(status)) {
+        if (status == OrderStatus.PENDING) {
             btnAccept.setVisibility(View.VISIBLE);
             btnCancel.setVisibility(View.VISIBLE);
-        } else if (OrderStatus.ACCEPTED.matches(status)) {
+        } else if (status == OrderStatus.ACCEPTED) {
             btnPreparing.setVisibility(View.VISIBLE);
             btnCancel.setVisibility(View.VISIBLE);
-        } else if (OrderStatus.PREPARING.matches(status)) {
+        } else if (status == OrderStatus.PREPARING) {
             btnComplete.setVisibility(View.VISIBLE);
             btnCancel.setVisibility(View.VISIBLE);
-        } else if (OrderStatus.COMPLETED.matches(status) || OrderStatus.CANCELLED.matches(status)) {
+        } else {
             // No buttons for final states
             layoutButtons.setVisibility(View.GONE);
         }
@@ -219,19 +228,19 @@ public class AdminOrderDetailActivity extends AppCompatActivity {
     private void setupButtons() {
         btnAccept.setOnClickListener(v -> {
             if (currentOrder != null) {
-                viewModel.acceptOrder(currentOrder.getOrderId());
+                viewModel.acceptOrder(currentOrder);
             }
         });
 
         btnPreparing.setOnClickListener(v -> {
             if (currentOrder != null) {
-                viewModel.updateOrderStatus(currentOrder.getOrderId(), OrderStatus.PREPARING.getVietnameseName());
+                viewModel.updateOrderStatus(currentOrder, OrderStatus.PREPARING);
             }
         });
 
         btnComplete.setOnClickListener(v -> {
             if (currentOrder != null) {
-                viewModel.updateOrderStatus(currentOrder.getOrderId(), OrderStatus.COMPLETED.getVietnameseName());
+                viewModel.updateOrderStatus(currentOrder, OrderStatus.COMPLETED);
             }
         });
 
@@ -241,9 +250,8 @@ public class AdminOrderDetailActivity extends AppCompatActivity {
                         .setTitle(getString(R.string.confirm_cancel_order))
                         .setMessage(getString(R.string.confirm_cancel_order_message))
                         .setPositiveButton(getString(R.string.action_confirm), (dialog, which) -> {
-                            // Update order status to cancelled and payment status to failed
-                            viewModel.updateOrderStatus(currentOrder.getOrderId(), OrderStatus.CANCELLED.getVietnameseName());
-                            viewModel.updatePaymentStatus(currentOrder.getOrderId(), PaymentStatus.CANCELLED.getVietnameseName());
+                            // Cancels the order and its payment in one transaction
+                            viewModel.updateOrderStatus(currentOrder, OrderStatus.CANCELLED);
                         })
                         .setNegativeButton(getString(R.string.action_cancel), null)
                         .show();
@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ProgressBar;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -13,7 +14,10 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.deligo.app.R;
 import com.deligo.app.adapters.AdminOrderAdapter;
+import com.deligo.app.constants.OrderStatus;
 import com.deligo.app.models.Order;
+import com.deligo.app.utils.EndlessScrollListener;
+import com.deligo.app.utils.OrderStatusUtils;
 import com.deligo.app.utils.UIHelper;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.AdminOrderViewModel;
@@ -31,6 +35,8 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
     private RecyclerView rvOrders;
     private ProgressBar progressBar;
     private View layoutEmpty;
+    private View layoutBulkActions;
+    private TextView tvSelectedCount;
 
     private AdminOrderViewModel viewModel;
     private AdminOrderAdapter adapter;
@@ -47,6 +53,7 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
         setupRecyclerView();
         setupViewModel();
         setupFilters();
+        setupBulkActions();
     }
 
     private void initViews() {
@@ -55,6 +62,8 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
         rvOrders = findViewById(R.id.rvOrders);
         progressBar = findViewById(R.id.progressBar);
         layoutEmpty = findViewById(R.id.layoutEmpty);
+        layoutBulkActions = findViewById(R.id.layoutBulkActions);
+        tvSelectedCount = findViewById(R.id.tvSelectedCount);
     }
 
     private void setupToolbar() {
@@ -67,7 +76,10 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
 
     private void setupRecyclerView() {
         adapter = new AdminOrderAdapter(this);
-        rvOrders.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        rvOrders.setLayoutManager(layoutManager);
+        // Load the next page of orders as the list nears its end
+        rvOrders.addOnScrollListener(new EndlessScrollListener(layoutManager, () -> viewModel.loadMoreOrders()));
         rvOrders.setAdapter(adapter);
     }
 
@@ -99,6 +111,15 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
             }
         });
 
+        // Another admin changed the order first
+        viewModel.getConflictOrder().observe(this, order -> {
+            if (order != null) {
+                UIHelper.showErrorSnackbar(findViewById(android.R.id.content),
+                        getString(R.string.toast_order_conflict, OrderStatusUtils.getLabel(this, order)));
+                viewModel.resetConflictOrder();
+            }
+        });
+
         // Observe action success
         viewModel.getActionSuccess().observe(this, success -> {
             if (success != null && success) {
@@ -108,10 +129,34 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
             }
         });
 
+        // Observe bulk action results
+        viewModel.getBulkResult().observe(this, result -> {
+            if (result != null) {
+                UIHelper.showSuccessSnackbar(findViewById(android.R.id.content),
+                    getString(R.string.toast_orders_bulk_updated, result.getUpdatedOrders().size(),
+                        result.getSkippedOrderIds().size(), result.getFailedOrderIds().size()));
+                viewModel.resetBulkResult();
+            }
+        });
+
         // Load orders
         viewModel.loadAllOrders();
     }
 
+    private void setupBulkActions() {
+        findViewById(R.id.btnBulkAccept).setOnClickListener(v -> applyBulkStatus(OrderStatus.ACCEPTED));
+        findViewById(R.id.btnBulkPreparing).setOnClickListener(v -> applyBulkStatus(OrderStatus.PREPARING));
+        findViewById(R.id.btnBulkComplete).setOnClickListener(v -> applyBulkStatus(OrderStatus.COMPLETED));
+        findViewById(R.id.btnBulkCancel).setOnClickListener(v -> applyBulkStatus(OrderStatus.CANCELLED));
+        findViewById(R.id.btnClearSelection).setOnClickListener(v -> adapter.clearSelection());
+    }
+
+    private void applyBulkStatus(OrderStatus status) {
+        // Orders that can't make this move are skipped by the repository and reported back
+        viewModel.updateOrderStatuses(adapter.getSelectedOrderIds(), status);
+        adapter.clearSelection();
+    }
+
     private void setupFilters() {
         // Setup click listeners for filter buttons
         findViewById(R.id.chipAll).setOnClickListener(v -> {
@@ -147,7 +192,7 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
             filteredOrders = allOrders;
         } else {
             filteredOrders = allOrders.stream()
-                    .filter(order -> selectedStatus.equalsIgnoreCase(order.getOrderStatus()))
+                    .filter(order -> order.getStatus() == OrderStatus.resolve(selectedStatus))
                     .collect(Collectors.toList());
         }
 
@@ -170,13 +215,19 @@ public class AdminOrdersActivity extends AppCompatActivity implements AdminOrder
         startActivity(intent);
     }
 
+    @Override
+    public void onSelectionChanged(int selectedCount) {
+        layoutBulkActions.setVisibility(selectedCount > 0 ? View.VISIBLE : View.GONE);
+        tvSelectedCount.setText(getString(R.string.orders_selected, selectedCount));
+    }
+
     @Override
     public void onAcceptOrder(Order order) {
-        viewModel.acceptOrder(order.getOrderId());
+        viewModel.acceptOrder(order);
     }
 
     @Override
-    public void onUpdateStatus(Order order, String newStatus) {
-        viewModel.updateOrderStatus(order.getOrderId(), newStatus);
+    public void onUpdateStatus(Order order, OrderStatus newStatus) {
+        viewModel.updateOrderStatus(order, newStatus);
     }
 }
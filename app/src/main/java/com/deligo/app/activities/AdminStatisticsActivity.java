@@ -19,6 +19,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.deligo.app.R;
 import com.deligo.app.adapters.FoodSalesAdapter;
 import com.deligo.app.models.FoodSales;
+import com.deligo.app.models.StatisticsSnapshot;
 import com.deligo.app.utils.CurrencyUtils;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.StatisticsViewModel;
@@ -131,48 +132,10 @@ public class AdminStatisticsActivity extends AppCompatActivity {
         ViewModelFactory factory = new ViewModelFactory();
         statisticsViewModel = new ViewModelProvider(this, factory).get(StatisticsViewModel.class);
 
-        // Observe total revenue
-        statisticsViewModel.getTotalRevenue().observe(this, revenue -> {
-            if (revenue != null) {
-                tvTotalRevenue.setText(CurrencyUtils.formatVND(revenue));
-            }
-        });
-
-        // Observe order count
-        statisticsViewModel.getOrderCount().observe(this, count -> {
-            if (count != null) {
-                tvOrderCount.setText(String.valueOf(count));
-            }
-        });
-
-        // Observe orders by status
-        statisticsViewModel.getOrdersByStatus().observe(this, statusMap -> {
-            if (statusMap != null) {
-                displayOrdersByStatus(statusMap);
-                updatePieChart(statusMap);
-            }
-        });
-
-        // Observe top selling foods
-        statisticsViewModel.getTopSellingFoods().observe(this, foodSalesList -> {
-            if (foodSalesList != null && !foodSalesList.isEmpty()) {
-                foodSalesAdapter.setFoodSalesList(foodSalesList);
-                rvTopFoods.setVisibility(View.VISIBLE);
-                tvNoTopFoods.setVisibility(View.GONE);
-                updateBarChart(foodSalesList);
-            } else {
-                rvTopFoods.setVisibility(View.GONE);
-                tvNoTopFoods.setVisibility(View.VISIBLE);
-                barChartTopFoods.clear();
-            }
-        });
-
-        // Observe daily revenue for trend chart
-        statisticsViewModel.getDailyRevenue().observe(this, dailyRevenueMap -> {
-            if (dailyRevenueMap != null && !dailyRevenueMap.isEmpty()) {
-                updateLineChart(dailyRevenueMap);
-            } else {
-                lineChartRevenue.clear();
+        // Observe the statistics snapshot; every card and chart redraws from the same result
+        statisticsViewModel.getStatistics().observe(this, snapshot -> {
+            if (snapshot != null) {
+                displayStatistics(snapshot);
             }
         });
 
@@ -191,6 +154,34 @@ public class AdminStatisticsActivity extends AppCompatActivity {
         });
     }
 
+    private void displayStatistics(StatisticsSnapshot snapshot) {
+        tvTotalRevenue.setText(CurrencyUtils.formatVND(snapshot.getTotalRevenue()));
+        tvOrderCount.setText(String.valueOf(snapshot.getOrderCount()));
+
+        Map<String, Integer> statusMap = snapshot.getOrdersByStatus();
+        displayOrdersByStatus(statusMap);
+        updatePieChart(statusMap);
+
+        List<FoodSales> foodSalesList = snapshot.getTopSellingFoods();
+        if (!foodSalesList.isEmpty()) {
+            foodSalesAdapter.setFoodSalesList(foodSalesList);
+            rvTopFoods.setVisibility(View.VISIBLE);
+            tvNoTopFoods.setVisibility(View.GONE);
+            updateBarChart(foodSalesList);
+        } else {
+            rvTopFoods.setVisibility(View.GONE);
+            tvNoTopFoods.setVisibility(View.VISIBLE);
+            barChartTopFoods.clear();
+        }
+
+        Map<String, Double> dailyRevenueMap = snapshot.getDailyRevenue();
+        if (!dailyRevenueMap.isEmpty()) {
+            updateLineChart(dailyRevenueMap);
+        } else {
+            lineChartRevenue.clear();
+        }
+    }
+
     private void setupRecyclerView() {
         foodSalesAdapter = new FoodSalesAdapter();
         rvTopFoods.setLayoutManager(new LinearLayoutManager(this));
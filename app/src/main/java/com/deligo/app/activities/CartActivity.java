@@ -79,11 +79,13 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
 
     private void setupCheckoutButton() {
         checkoutButton.setOnClickListener(v -> {
-            // Navigate to checkout activity
-            Intent intent = new Intent(CartActivity.this, CheckoutActivity.class);
-            intent.putExtra("cartItems", (java.io.Serializable) cartViewModel.getCartItems().getValue());
-            intent.putExtra("totalAmount", cartViewModel.getCartTotal().getValue());
-            startActivity(intent);
+            // Write queued quantity edits first, then navigate to checkout activity
+            cartViewModel.flushPendingChanges(() -> {
+                Intent intent = new Intent(CartActivity.this, CheckoutActivity.class);
+                intent.putExtra("cartItems", (java.io.Serializable) cartViewModel.getCartItems().getValue());
+                intent.putExtra("totalAmount", cartViewModel.getCartTotal().getValue());
+                startActivity(intent);
+            });
         });
     }
 
@@ -127,12 +129,12 @@ public class CartActivity extends AppCompatActivity implements CartAdapter.OnCar
 
     @Override
     public void onQuantityChanged(CartItem cartItem, int newQuantity) {
-        cartViewModel.updateQuantity(cartItem.getCartItemId(), newQuantity);
+        cartViewModel.updateQuantity(cartItem, newQuantity);
     }
 
     @Override
     public void onRemoveItem(CartItem cartItem) {
-        cartViewModel.removeItem(cartItem.getCartItemId());
+        cartViewModel.removeItem(cartItem);
     }
 
     @Override
@@ -67,18 +67,15 @@ public class FoodDetailActivity extends AppCompatActivity {
             return;
         }
 
-        loadFoodDetails();
-        loadReviews();
-        loadAverageRating();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        // Reload reviews and rating when returning from AddReviewActivity
+        // Load (or reload when returning from AddReviewActivity) the food, its rating and reviews
         if (foodId != null && !foodId.isEmpty()) {
+            loadFoodDetails();
             loadReviews();
-            loadAverageRating();
         }
     }
 
@@ -137,6 +134,7 @@ public class FoodDetailActivity extends AppCompatActivity {
         foodNameTextView.setText(food.getName());
         foodPriceTextView.setText(CurrencyUtils.formatVND(food.getPrice()));
         foodDescriptionTextView.setText(food.getDescription());
+        displayAverageRating(food);
 
         // Load image using Glide
         Glide.with(this)
@@ -176,22 +174,13 @@ public class FoodDetailActivity extends AppCompatActivity {
         });
     }
 
-    private void loadAverageRating() {
-        reviewRepository.getAverageRating(foodId, new ReviewRepository.DataCallback<Double>() {
-            @Override
-            public void onSuccess(Double rating) {
-                if (rating != null && rating > 0) {
-                    averageRatingTextView.setText(String.format("%.1f ⭐", rating));
-                } else {
-                    averageRatingTextView.setText(getString(R.string.label_no_rating));
-                }
-            }
-
-            @Override
-            public void onError(String message) {
-                averageRatingTextView.setText(getString(R.string.label_rating_na));
-            }
-        });
+    private void displayAverageRating(Food food) {
+        // Rating aggregate is stored on the food document, no extra read needed
+        if (food.getRatingCount() > 0) {
+            averageRatingTextView.setText(String.format("%.1f ⭐", food.getAverageRating()));
+        } else {
+            averageRatingTextView.setText(getString(R.string.label_no_rating));
+        }
     }
 
     private void addToCart() {
@@ -223,7 +212,7 @@ public class FoodDetailActivity extends AppCompatActivity {
         int quantity = 1; // Default quantity
         String note = ""; // No note by default
 
-        cartRepository.addToCart(userId, foodId, quantity, note, new CartRepository.ActionCallback() {
+        cartRepository.addToCart(userId, currentFood, quantity, note, new CartRepository.ActionCallback() {
             @Override
             public void onSuccess() {
                 UIHelper.showLoading(progressBar, false);
@@ -16,11 +16,13 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.deligo.app.R;
+import com.deligo.app.constants.OrderStatus;
 import com.deligo.app.adapters.OrderDetailAdapter;
 import com.deligo.app.repositories.CartRepositoryImpl;
 import com.deligo.app.repositories.OrderRepositoryImpl;
 import com.deligo.app.repositories.ProfileRepositoryImpl;
 import com.deligo.app.utils.CurrencyUtils;
+import com.deligo.app.utils.OrderStatusUtils;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.OrderViewModel;
 import com.deligo.app.viewmodels.ProfileViewModel;
@@ -167,8 +169,8 @@ public class OrderDetailActivity extends AppCompatActivity {
                 tvOrderDate.setText(dateStr);
 
                 // Order Status
-                tvOrderStatus.setText(capitalizeFirst(order.getOrderStatus()));
-                tvOrderStatus.setTextColor(getStatusColor(order.getOrderStatus()));
+                tvOrderStatus.setText(OrderStatusUtils.getLabel(this, order));
+                tvOrderStatus.setTextColor(OrderStatusUtils.getColor(order.getStatus()));
 
                 // Payment Status
                 tvPaymentStatus.setText(capitalizeFirst(order.getPaymentStatus()));
@@ -201,15 +203,14 @@ public class OrderDetailActivity extends AppCompatActivity {
                 }
 
                 // Show cancel button only for pending orders
-                String orderStatus = order.getOrderStatus();
-                if (orderStatus != null && orderStatus.toLowerCase().contains("chờ")) {
+                if (order.getStatus() == OrderStatus.PENDING) {
                     btnCancelOrder.setVisibility(View.VISIBLE);
                 } else {
                     btnCancelOrder.setVisibility(View.GONE);
                 }
 
                 // Show review and complaint buttons only for completed orders
-                if ("đã hoàn thành".equalsIgnoreCase(order.getOrderStatus())) {
+                if (order.getStatus() == OrderStatus.COMPLETED) {
                     btnReviewProducts.setVisibility(View.VISIBLE);
                     btnSubmitComplaint.setVisibility(View.VISIBLE);
                 } else {
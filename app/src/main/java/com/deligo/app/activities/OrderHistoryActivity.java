@@ -17,6 +17,7 @@ import com.deligo.app.adapters.OrderAdapter;
 import com.deligo.app.models.Order;
 import com.deligo.app.repositories.CartRepositoryImpl;
 import com.deligo.app.repositories.OrderRepositoryImpl;
+import com.deligo.app.utils.EndlessScrollListener;
 import com.deligo.app.utils.UIHelper;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.OrderViewModel;
@@ -66,7 +67,10 @@ public class OrderHistoryActivity extends AppCompatActivity implements OrderAdap
 
     private void setupRecyclerView() {
         orderAdapter = new OrderAdapter(this);
-        ordersRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        ordersRecyclerView.setLayoutManager(layoutManager);
+        // Load the next page of orders as the list nears its end
+        ordersRecyclerView.addOnScrollListener(new EndlessScrollListener(layoutManager, () -> orderViewModel.loadMoreOrderHistory()));
         ordersRecyclerView.setAdapter(orderAdapter);
     }
 
@@ -105,7 +105,7 @@ public class ReviewFoodActivity extends AppCompatActivity implements ReviewFoodA
 
     @Override
     public void onReviewClick(OrderDetail orderDetail) {
-        if (orderDetail.getFood() != null) {
+        if (orderDetail.getFoodId() != null) {
             Intent intent = new Intent(this, AddReviewActivity.class);
             intent.putExtra("foodId", orderDetail.getFoodId());
             startActivity(intent);
@@ -14,13 +14,15 @@ import com.deligo.app.models.Complaint;
 import android.widget.Button;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Locale;
 
-public class AdminComplaintAdapter extends RecyclerView.Adapter<AdminComplaintAdapter.AdminComplaintViewHolder> {
-    private List<Complaint> complaints = new ArrayList<>();
+public class AdminComplaintAdapter extends DiffListAdapter<Complaint, AdminComplaintAdapter.AdminComplaintViewHolder> {
+    // Payload for a row where only the status changed (resolved/rejected)
+    private static final String PAYLOAD_STATUS = "status";
+
     private OnComplaintActionListener listener;
 
     public interface OnComplaintActionListener {
@@ -33,8 +35,23 @@ public class AdminComplaintAdapter extends RecyclerView.Adapter<AdminComplaintAd
     }
 
     public void setComplaints(List<Complaint> complaints) {
-        this.complaints = complaints;
-        notifyDataSetChanged();
+        submitList(complaints);
+    }
+
+    @Override
+    protected Object getItemKey(Complaint item) {
+        return item.getComplaintId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Complaint oldItem, Complaint newItem) {
+        return Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                && Objects.equals(oldItem.getContent(), newItem.getContent());
+    }
+
+    @Override
+    protected Object getChangePayload(Complaint oldItem, Complaint newItem) {
+        return Objects.equals(oldItem.getContent(), newItem.getContent()) ? PAYLOAD_STATUS : null;
     }
 
     @NonNull
@@ -47,13 +64,17 @@ public class AdminComplaintAdapter extends RecyclerView.Adapter<AdminComplaintAd
 
     @Override
     public void onBindViewHolder(@NonNull AdminComplaintViewHolder holder, int position) {
-        Complaint complaint = complaints.get(position);
+        Complaint complaint = getItem(position);
         holder.bind(complaint, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return complaints.size();
+    public void onBindViewHolder(@NonNull AdminComplaintViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty()) {
+            holder.bindStatus(getItem(position), listener);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
     static class AdminComplaintViewHolder extends RecyclerView.ViewHolder {
@@ -101,6 +122,10 @@ public class AdminComplaintAdapter extends RecyclerView.Adapter<AdminComplaintAd
             // Content
             contentTextView.setText(complaint.getContent());
 
+            bindStatus(complaint, listener);
+        }
+
+        public void bindStatus(Complaint complaint, OnComplaintActionListener listener) {
             // Status
             String status = capitalizeFirst(complaint.getStatus());
             statusChip.setText(status);
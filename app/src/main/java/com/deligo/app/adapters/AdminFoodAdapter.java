@@ -15,12 +15,11 @@ import com.deligo.app.models.Food;
 import com.deligo.app.utils.CurrencyUtils;
 import android.widget.Button;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Locale;
 
-public class AdminFoodAdapter extends RecyclerView.Adapter<AdminFoodAdapter.FoodViewHolder> {
-    private List<Food> foodList = new ArrayList<>();
+public class AdminFoodAdapter extends DiffListAdapter<Food, AdminFoodAdapter.FoodViewHolder> {
     private OnFoodActionListener listener;
 
     public interface OnFoodActionListener {
@@ -34,8 +33,20 @@ public class AdminFoodAdapter extends RecyclerView.Adapter<AdminFoodAdapter.Food
     }
 
     public void setFoodList(List<Food> foodList) {
-        this.foodList = foodList;
-        notifyDataSetChanged();
+        submitList(foodList);
+    }
+
+    @Override
+    protected Object getItemKey(Food item) {
+        return item.getFoodId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Food oldItem, Food newItem) {
+        return Objects.equals(oldItem.getName(), newItem.getName())
+                && oldItem.getPrice() == newItem.getPrice()
+                && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl())
+                && oldItem.isAvailable() == newItem.isAvailable();
     }
 
     @NonNull
@@ -48,15 +59,10 @@ public class AdminFoodAdapter extends RecyclerView.Adapter<AdminFoodAdapter.Food
 
     @Override
     public void onBindViewHolder(@NonNull FoodViewHolder holder, int position) {
-        Food food = foodList.get(position);
+        Food food = getItem(position);
         holder.bind(food);
     }
 
-    @Override
-    public int getItemCount() {
-        return foodList.size();
-    }
-
     class FoodViewHolder extends RecyclerView.ViewHolder {
         private ImageView foodImageView;
         private TextView foodNameTextView;
@@ -1,6 +1,5 @@
 package com.deligo.app.adapters;
 
-import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,26 +7,38 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.deligo.app.R;
+import com.deligo.app.constants.OrderStatus;
 import com.deligo.app.models.Order;
 import com.deligo.app.utils.CurrencyUtils;
+import com.deligo.app.utils.OrderStatusUtils;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+
+public class AdminOrderAdapter extends DiffListAdapter<Order, AdminOrderAdapter.AdminOrderViewHolder> {
+    // Partial rebinds: status text and action buttons, or just the selection highlight
+    private static final String PAYLOAD_SELECTION = "selection";
 
-public class AdminOrderAdapter extends RecyclerView.Adapter<AdminOrderAdapter.AdminOrderViewHolder> {
-    private List<Order> orders = new ArrayList<>();
     private OnOrderActionListener listener;
+    // Ids of the orders picked for a bulk action; a long press starts the selection
+    private final Set<String> selectedOrderIds = new LinkedHashSet<>();
 
     public interface OnOrderActionListener {
         void onOrderClick(Order order);
         void onAcceptOrder(Order order);
-        void onUpdateStatus(Order order, String newStatus);
+        void onUpdateStatus(Order order, OrderStatus newStatus);
+        void onSelectionChanged(int selectedCount);
     }
 
     public AdminOrderAdapter(OnOrderActionListener listener) {
@@ -35,8 +46,56 @@ public class AdminOrderAdapter extends RecyclerView.Adapter<AdminOrderAdapter.Ad
     }
 
     public void setOrders(List<Order> orders) {
-        this.orders = orders;
-        notifyDataSetChanged();
+        // Unchanged rows are left alone; a status change only rebinds the status and buttons
+        submitList(orders);
+
+        // Drop selected orders that are no longer shown (filtered out)
+        Set<String> shownIds = new HashSet<>();
+        for (Order order : orders) {
+            shownIds.add(order.getOrderId());
+        }
+        if (selectedOrderIds.retainAll(shownIds) && listener != null) {
+            listener.onSelectionChanged(selectedOrderIds.size());
+        }
+    }
+
+    @Override
+    protected Object getItemKey(Order item) {
+        return item.getOrderId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Order oldItem, Order newItem) {
+        return OrderAdapter.sameStatus(oldItem, newItem) && OrderAdapter.sameExceptStatus(oldItem, newItem);
+    }
+
+    @Override
+    protected Object getChangePayload(Order oldItem, Order newItem) {
+        return OrderAdapter.sameExceptStatus(oldItem, newItem) ? OrderAdapter.PAYLOAD_STATUS : null;
+    }
+
+    public List<String> getSelectedOrderIds() {
+        return new ArrayList<>(selectedOrderIds);
+    }
+
+    public void clearSelection() {
+        if (selectedOrderIds.isEmpty()) return;
+        selectedOrderIds.clear();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        if (listener != null) {
+            listener.onSelectionChanged(0);
+        }
+    }
+
+    private void toggleSelection(int position) {
+        String orderId = getItem(position).getOrderId();
+        if (!selectedOrderIds.remove(orderId)) {
+            selectedOrderIds.add(orderId);
+        }
+        notifyItemChanged(position, PAYLOAD_SELECTION);
+        if (listener != null) {
+            listener.onSelectionChanged(selectedOrderIds.size());
+        }
     }
 
     @NonNull
@@ -49,13 +108,21 @@ public class AdminOrderAdapter extends RecyclerView.Adapter<AdminOrderAdapter.Ad
 
     @Override
     public void onBindViewHolder(@NonNull AdminOrderViewHolder holder, int position) {
-        Order order = orders.get(position);
+        Order order = getItem(position);
         holder.bind(order);
     }
 
     @Override
-    public int getItemCount() {
-        return orders.size();
+    public void onBindViewHolder(@NonNull AdminOrderViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            super.onBindViewHolder(holder, position, payloads);
+            return;
+        }
+        Order order = getItem(position);
+        if (payloads.contains(OrderAdapter.PAYLOAD_STATUS)) {
+            holder.bindStatus(order);
+        }
+        holder.bindSelection(order);
     }
 
     class AdminOrderViewHolder extends RecyclerView.ViewHolder {
@@ -76,10 +143,20 @@ public class AdminOrderAdapter extends RecyclerView.Adapter<AdminOrderAdapter.Ad
 
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onOrderClick(orders.get(position));
+                if (position == RecyclerView.NO_POSITION) return;
+                if (!selectedOrderIds.isEmpty()) {
+                    toggleSelection(position);
+                } else if (listener != null) {
+                    listener.onOrderClick(getItem(position));
                 }
             });
+
+            itemView.setOnLongClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return false;
+                toggleSelection(position);
+                return true;
+            });
         }
 
         public void bind(Order order) {
@@ -94,19 +171,30 @@ public class AdminOrderAdapter extends RecyclerView.Adapter<AdminOrderAdapter.Ad
             String dateStr = dateFormat.format(new Date(order.getCreatedAt()));
             tvOrderDate.setText(dateStr);
 
-            // Order Status
-            tvOrderStatus.setText(capitalizeFirst(order.getOrderStatus()));
-            tvOrderStatus.setTextColor(getStatusColor(order.getOrderStatus()));
-
             // Total Amount
             tvTotalAmount.setText(CurrencyUtils.formatVND(order.getTotalAmount()));
 
+            bindStatus(order);
+            bindSelection(order);
+        }
+
+        public void bindStatus(Order order) {
+            // Order Status
+            tvOrderStatus.setText(OrderStatusUtils.getLabel(itemView.getContext(), order));
+            tvOrderStatus.setTextColor(OrderStatusUtils.getColor(order.getStatus()));
+
             // Configure buttons based on current status
             configureButtons(order);
         }
 
+        public void bindSelection(Order order) {
+            boolean selected = selectedOrderIds.contains(order.getOrderId());
+            ((CardView) itemView).setCardBackgroundColor(ContextCompat.getColor(itemView.getContext(),
+                    selected ? R.color.primary_light_transparent : R.color.card_background));
+        }
+
         private void configureButtons(Order order) {
-            String status = order.getOrderStatus();
+            OrderStatus status = order.getStatus();
 
             // Hide all buttons first
             btnAccept.setVisibility(View.GONE);
@@ -115,77 +203,46 @@ public class AdminOrderAdapter extends RecyclerView.Adapter<AdminOrderAdapter.Ad
             btnCancel.setVisibility(View.GONE);
 
             if (status == null) return;
-            
-            String statusLower = status.toLowerCase();
-            
-            // Show appropriate buttons based on status (Vietnamese)
-            if (statusLower.contains("chờ") || statusLower.equals("pending")) {
-                btnAccept.setVisibility(View.VISIBLE);
-                btnCancel.setVisibility(View.VISIBLE);
-                btnAccept.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onAcceptOrder(order);
-                    }
-                });
-                btnCancel.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onUpdateStatus(order, "Bị huỷ");
-                    }
-                });
-            } else if (statusLower.contains("nhận") || statusLower.equals("accepted")) {
-                btnPreparing.setVisibility(View.VISIBLE);
-                btnCancel.setVisibility(View.VISIBLE);
-                btnPreparing.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onUpdateStatus(order, "Đang chuẩn bị");
-                    }
-                });
-                btnCancel.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onUpdateStatus(order, "Bị huỷ");
-                    }
-                });
-            } else if (statusLower.contains("chuẩn bị") || statusLower.equals("preparing")) {
-                btnComplete.setVisibility(View.VISIBLE);
-                btnCancel.setVisibility(View.VISIBLE);
-                btnComplete.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onUpdateStatus(order, "Đã hoàn thành");
-                    }
-                });
-                btnCancel.setOnClickListener(v -> {
-                    if (listener != null) {
-                        listener.onUpdateStatus(order, "Bị huỷ");
-                    }
-                });
-            }
-            // No buttons for final states (completed/cancelled)
-        }
 
-        private String capitalizeFirst(String text) {
-            if (text == null || text.isEmpty()) {
-                return text;
+            // Show appropriate buttons based on status
+            switch (status) {
+                case PENDING:
+                    btnAccept.setVisibility(View.VISIBLE);
+                    btnCancel.setVisibility(View.VISIBLE);
+                    btnAccept.setOnClickListener(v -> {
+                        if (listener != null) {
+                            listener.onAcceptOrder(order);
+                        }
+                    });
+                    break;
+                case ACCEPTED:
+                    btnPreparing.setVisibility(View.VISIBLE);
+                    btnCancel.setVisibility(View.VISIBLE);
+                    btnPreparing.setOnClickListener(v -> {
+                        if (listener != null) {
+                            listener.onUpdateStatus(order, OrderStatus.PREPARING);
+                        }
+                    });
+                    break;
+                case PREPARING:
+                    btnComplete.setVisibility(View.VISIBLE);
+                    btnCancel.setVisibility(View.VISIBLE);
+                    btnComplete.setOnClickListener(v -> {
+                        if (listener != null) {
+                            listener.onUpdateStatus(order, OrderStatus.COMPLETED);
+                        }
+                    });
+                    break;
+                default:
+                    // No buttons for final states (completed/cancelled)
+                    return;
             }
-            return text.substring(0, 1).toUpperCase() + text.substring(1);
-        }
 
-        private int getStatusColor(String status) {
-            if (status == null) return Color.parseColor("#757575");
-            
-            String statusLower = status.toLowerCase();
-            if (statusLower.contains("chờ") || statusLower.contains("pending")) {
-                return Color.parseColor("#FF9800"); // Orange
-            } else if (statusLower.contains("nhận") || statusLower.contains("chuẩn bị") || 
-                       statusLower.contains("accepted") || statusLower.contains("preparing")) {
-                return Color.parseColor("#2196F3"); // Blue
-            } else if (statusLower.contains("hoàn thành") || statusLower.contains("completed")) {
-                return Color.parseColor("#4CAF50"); // Green
-            } else if (statusLower.contains("huỷ") || statusLower.contains("hủy") || 
-                       statusLower.contains("cancelled")) {
-                return Color.parseColor("#F44336"); // Red
-            } else {
-                return Color.parseColor("#757575"); // Gray
-            }
+            btnCancel.setOnClickListener(v -> {
+                if (listener != null) {
+                    listener.onUpdateStatus(order, OrderStatus.CANCELLED);
+                }
+            });
         }
     }
 }
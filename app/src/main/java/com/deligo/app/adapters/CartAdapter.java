@@ -13,14 +13,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.deligo.app.R;
 import com.deligo.app.models.CartItem;
+import com.deligo.app.models.Food;
 import com.deligo.app.utils.CurrencyUtils;
 import android.widget.Button;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+
+public class CartAdapter extends DiffListAdapter<CartItem, CartAdapter.CartViewHolder> {
+    // Payload for a row whose only change is the quantity (+/- taps)
+    private static final String PAYLOAD_QUANTITY = "quantity";
 
-public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder> {
-    private List<CartItem> cartItems = new ArrayList<>();
     private OnCartItemActionListener listener;
 
     public interface OnCartItemActionListener {
@@ -33,8 +36,32 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     }
 
     public void setCartItems(List<CartItem> cartItems) {
-        this.cartItems = cartItems;
-        notifyDataSetChanged();
+        submitList(cartItems);
+    }
+
+    @Override
+    protected Object getItemKey(CartItem item) {
+        return item.getCartItemId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(CartItem oldItem, CartItem newItem) {
+        return oldItem.getQuantity() == newItem.getQuantity() && sameExceptQuantity(oldItem, newItem);
+    }
+
+    @Override
+    protected Object getChangePayload(CartItem oldItem, CartItem newItem) {
+        return sameExceptQuantity(oldItem, newItem) ? PAYLOAD_QUANTITY : null;
+    }
+
+    private static boolean sameExceptQuantity(CartItem oldItem, CartItem newItem) {
+        Food oldFood = oldItem.getFood();
+        Food newFood = newItem.getFood();
+        return oldItem.getPrice() == newItem.getPrice()
+                && Objects.equals(oldItem.getNote(), newItem.getNote())
+                && (oldFood == newFood || (oldFood != null && newFood != null
+                        && Objects.equals(oldFood.getName(), newFood.getName())
+                        && Objects.equals(oldFood.getImageUrl(), newFood.getImageUrl())));
     }
 
     @NonNull
@@ -47,13 +74,18 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
-        CartItem cartItem = cartItems.get(position);
+        CartItem cartItem = getItem(position);
         holder.bind(cartItem);
     }
 
     @Override
-    public int getItemCount() {
-        return cartItems.size();
+    public void onBindViewHolder(@NonNull CartViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Quantity-only change: leave the name and image alone
+        if (!payloads.isEmpty()) {
+            holder.bindQuantity(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
     class CartViewHolder extends RecyclerView.ViewHolder {
@@ -78,6 +110,30 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
             decreaseButton = itemView.findViewById(R.id.decreaseButton);
             increaseButton = itemView.findViewById(R.id.increaseButton);
             removeButton = itemView.findViewById(R.id.removeButton);
+
+            // Listeners read the row's current item, so they stay right after a partial rebind
+            decreaseButton.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && listener != null) {
+                    CartItem cartItem = getItem(position);
+                    listener.onQuantityChanged(cartItem, cartItem.getQuantity() - 1);
+                }
+            });
+
+            increaseButton.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && listener != null) {
+                    CartItem cartItem = getItem(position);
+                    listener.onQuantityChanged(cartItem, cartItem.getQuantity() + 1);
+                }
+            });
+
+            removeButton.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && listener != null) {
+                    listener.onRemoveItem(getItem(position));
+                }
+            });
         }
 
         public void bind(CartItem cartItem) {
@@ -98,11 +154,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
 
             // Set prices
             unitPriceTextView.setText(CurrencyUtils.formatVND(cartItem.getPrice()));
-            double itemTotal = cartItem.getPrice() * cartItem.getQuantity();
-            itemTotalTextView.setText(CurrencyUtils.formatVND(itemTotal));
-
-            // Set quantity
-            quantityTextView.setText(String.valueOf(cartItem.getQuantity()));
+            bindQuantity(cartItem);
 
             // Set note if exists
             if (cartItem.getNote() != null && !cartItem.getNote().trim().isEmpty()) {
@@ -111,29 +163,12 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
             } else {
                 noteTextView.setVisibility(View.GONE);
             }
+        }
 
-            // Decrease button click
-            decreaseButton.setOnClickListener(v -> {
-                if (listener != null) {
-                    int newQuantity = cartItem.getQuantity() - 1;
-                    listener.onQuantityChanged(cartItem, newQuantity);
-                }
-            });
-
-            // Increase button click
-            increaseButton.setOnClickListener(v -> {
-                if (listener != null) {
-                    int newQuantity = cartItem.getQuantity() + 1;
-                    listener.onQuantityChanged(cartItem, newQuantity);
-                }
-            });
-
-            // Remove button click
-            removeButton.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onRemoveItem(cartItem);
-                }
-            });
+        public void bindQuantity(CartItem cartItem) {
+            quantityTextView.setText(String.valueOf(cartItem.getQuantity()));
+            double itemTotal = cartItem.getPrice() * cartItem.getQuantity();
+            itemTotalTextView.setText(CurrencyUtils.formatVND(itemTotal));
         }
     }
 }
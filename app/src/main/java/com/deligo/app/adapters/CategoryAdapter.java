@@ -12,11 +12,10 @@ import com.deligo.app.R;
 import com.deligo.app.models.Category;
 import android.widget.Button;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
-    private List<Category> categoryList = new ArrayList<>();
+public class CategoryAdapter extends DiffListAdapter<Category, CategoryAdapter.CategoryViewHolder> {
     private OnCategoryActionListener listener;
 
     public interface OnCategoryActionListener {
@@ -29,8 +28,17 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     }
 
     public void setCategoryList(List<Category> categoryList) {
-        this.categoryList = categoryList;
-        notifyDataSetChanged();
+        submitList(categoryList);
+    }
+
+    @Override
+    protected Object getItemKey(Category item) {
+        return item.getCategoryId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Category oldItem, Category newItem) {
+        return Objects.equals(oldItem.getCategoryName(), newItem.getCategoryName());
     }
 
     @NonNull
@@ -43,15 +51,10 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        Category category = categoryList.get(position);
+        Category category = getItem(position);
         holder.bind(category);
     }
 
-    @Override
-    public int getItemCount() {
-        return categoryList.size();
-    }
-
     class CategoryViewHolder extends RecyclerView.ViewHolder {
         private TextView categoryNameTextView;
         private Button editButton;
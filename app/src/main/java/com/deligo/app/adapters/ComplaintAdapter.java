@@ -14,17 +14,26 @@ import com.deligo.app.models.Complaint;
 import android.widget.Button;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Locale;
 
-public class ComplaintAdapter extends RecyclerView.Adapter<ComplaintAdapter.ComplaintViewHolder> {
-    private List<Complaint> complaints = new ArrayList<>();
+public class ComplaintAdapter extends DiffListAdapter<Complaint, ComplaintAdapter.ComplaintViewHolder> {
 
     public void setComplaints(List<Complaint> complaints) {
-        this.complaints = complaints;
-        notifyDataSetChanged();
+        submitList(complaints);
+    }
+
+    @Override
+    protected Object getItemKey(Complaint item) {
+        return item.getComplaintId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Complaint oldItem, Complaint newItem) {
+        return Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                && Objects.equals(oldItem.getContent(), newItem.getContent());
     }
 
     @NonNull
@@ -37,15 +46,10 @@ public class ComplaintAdapter extends RecyclerView.Adapter<ComplaintAdapter.Comp
 
     @Override
     public void onBindViewHolder(@NonNull ComplaintViewHolder holder, int position) {
-        Complaint complaint = complaints.get(position);
+        Complaint complaint = getItem(position);
         holder.bind(complaint);
     }
 
-    @Override
-    public int getItemCount() {
-        return complaints.size();
-    }
-
     static class ComplaintViewHolder extends RecyclerView.ViewHolder {
         private TextView orderIdTextView;
         private TextView dateTextView;
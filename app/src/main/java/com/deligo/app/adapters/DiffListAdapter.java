@@ -0,0 +1,89 @@
+package com.deligo.app.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base for the list adapters. A new list is diffed against the shown one on a background thread
+ * and only the rows that were inserted, removed, moved or changed are updated. Rows are matched
+ * by getItemKey, which also gives each row its stable id; subclasses can return a payload from
+ * getChangePayload to rebind part of a row.
+ */
+public abstract class DiffListAdapter<T, VH extends RecyclerView.ViewHolder> extends ListAdapter<T, VH> {
+    // Row key -> stable id, handed out in first-seen order so two keys never share an id
+    private final Map<Object, Long> stableIds = new HashMap<>();
+
+    protected DiffListAdapter() {
+        this(new KeyedItemCallback<>());
+    }
+
+    private DiffListAdapter(KeyedItemCallback<T> itemCallback) {
+        super(itemCallback);
+        // Diffing only starts with the first submitList, after this is set
+        itemCallback.adapter = this;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Show the given items. The list is copied, so the caller may keep changing its own list.
+     */
+    @Override
+    public void submitList(@Nullable List<T> items) {
+        super.submitList(items != null ? new ArrayList<>(items) : null);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        Object key = getItemKey(getItem(position));
+        if (key == null) {
+            return RecyclerView.NO_ID;
+        }
+        Long id = stableIds.get(key);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(key, id);
+        }
+        return id;
+    }
+
+    // Identity of a row across lists (document id); called off the main thread
+    protected abstract Object getItemKey(T item);
+
+    // Whether the row would look the same; called off the main thread
+    protected abstract boolean areContentsTheSame(T oldItem, T newItem);
+
+    // What changed in a row, for a partial rebind; null rebinds the whole row
+    protected Object getChangePayload(T oldItem, T newItem) {
+        return null;
+    }
+
+    // ListAdapter takes its callback before the adapter exists, so the adapter is filled in afterwards
+    private static final class KeyedItemCallback<T> extends DiffUtil.ItemCallback<T> {
+        private DiffListAdapter<T, ?> adapter;
+
+        @Override
+        public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            Object oldKey = adapter.getItemKey(oldItem);
+            return oldKey != null && oldKey.equals(adapter.getItemKey(newItem));
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.areContentsTheSame(oldItem, newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.getChangePayload(oldItem, newItem);
+        }
+    }
+}
@@ -8,24 +8,46 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.deligo.app.R;
 import com.deligo.app.models.Food;
-import com.deligo.app.repositories.ReviewRepository;
-import com.deligo.app.repositories.ReviewRepositoryImpl;
 import com.deligo.app.utils.CurrencyUtils;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+public class FoodAdapter extends DiffListAdapter<Food, FoodAdapter.FoodViewHolder> {
+    // Payload for a row where only the sold count or rating changed
+    private static final String PAYLOAD_STATS = "stats";
 
-public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder> {
-    private List<Food> foodList = new ArrayList<>();
     private OnFoodClickListener listener;
-    private ReviewRepository reviewRepository;
-    private com.deligo.app.repositories.StatisticsRepository statisticsRepository;
+
+    // Images of the rows just past the visible window are fetched ahead of the scroll.
+    // Sold count and rating need no fetch: they are read from the food document itself.
+    private static final int PRELOAD_AHEAD = 6;
+    private final Set<String> preloadedUrls = new HashSet<>();
+    private int imageWidth;
+    private int imageHeight;
+
+    private final RecyclerView.OnScrollListener preloadListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            if (dy < 0 || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+                return;
+            }
+            // GridLayoutManager is a LinearLayoutManager
+            int lastVisible = ((LinearLayoutManager) recyclerView.getLayoutManager()).findLastVisibleItemPosition();
+            if (lastVisible != RecyclerView.NO_POSITION) {
+                preload(recyclerView, lastVisible + 1, lastVisible + 1 + PRELOAD_AHEAD);
+            }
+        }
+    };
 
     public interface OnFoodClickListener {
         void onFoodClick(Food food);
@@ -33,13 +55,64 @@ public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder
 
     public FoodAdapter(OnFoodClickListener listener) {
         this.listener = listener;
-        this.reviewRepository = new ReviewRepositoryImpl();
-        this.statisticsRepository = new com.deligo.app.repositories.StatisticsRepositoryImpl();
     }
 
     public void setFoodList(List<Food> foodList) {
-        this.foodList = foodList;
-        notifyDataSetChanged();
+        submitList(foodList);
+    }
+
+    @Override
+    protected Object getItemKey(Food item) {
+        return item.getFoodId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Food oldItem, Food newItem) {
+        return sameStats(oldItem, newItem) && sameExceptStats(oldItem, newItem);
+    }
+
+    @Override
+    protected Object getChangePayload(Food oldItem, Food newItem) {
+        return sameExceptStats(oldItem, newItem) ? PAYLOAD_STATS : null;
+    }
+
+    private static boolean sameStats(Food oldItem, Food newItem) {
+        return oldItem.getSoldCount() == newItem.getSoldCount()
+                && oldItem.getRatingCount() == newItem.getRatingCount()
+                && oldItem.getRatingSum() == newItem.getRatingSum();
+    }
+
+    private static boolean sameExceptStats(Food oldItem, Food newItem) {
+        return Objects.equals(oldItem.getName(), newItem.getName())
+                && oldItem.getPrice() == newItem.getPrice()
+                && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl())
+                && oldItem.isAvailable() == newItem.isAvailable();
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(preloadListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(preloadListener);
+    }
+
+    private void preload(RecyclerView recyclerView, int from, int to) {
+        // Until a row has been laid out the size is unknown; then only the disk cache is warmed
+        for (int position = from; position < Math.min(to, getItemCount()); position++) {
+            String imageUrl = getItem(position).getImageUrl();
+            if (imageUrl == null || imageUrl.isEmpty() || !preloadedUrls.add(imageUrl)) {
+                continue;
+            }
+            if (imageWidth > 0 && imageHeight > 0) {
+                // Same url, transformation and size as bind, so the row is served from memory
+                Glide.with(recyclerView).load(imageUrl).centerCrop().preload(imageWidth, imageHeight);
+            } else {
+                Glide.with(recyclerView).load(imageUrl).preload();
+            }
+        }
     }
 
     @NonNull
@@ -52,13 +125,24 @@ public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull FoodViewHolder holder, int position) {
-        Food food = foodList.get(position);
+        Food food = getItem(position);
         holder.bind(food);
     }
 
     @Override
-    public int getItemCount() {
-        return foodList.size();
+    public void onBindViewHolder(@NonNull FoodViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Sold count or rating only: keep the image request as it is
+        if (!payloads.isEmpty()) {
+            holder.bindStats(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull FoodViewHolder holder) {
+        // Cancel a load still in flight so it can't land in the holder after it is reused
+        Glide.with(holder.itemView).clear(holder.foodImageView);
     }
 
     class FoodViewHolder extends RecyclerView.ViewHolder {
@@ -94,41 +178,12 @@ public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder
                 availabilityTextView.setBackgroundColor(Color.parseColor("#9E9E9E"));
             }
 
-            // Load sold count from completed orders
-            statisticsRepository.getTotalSoldCountForFood(food.getFoodId(), new com.deligo.app.repositories.StatisticsRepository.DataCallback<Integer>() {
-                @Override
-                public void onSuccess(Integer soldCount) {
-                    if (soldCount != null && soldCount > 0) {
-                        foodSoldCountTextView.setVisibility(View.VISIBLE);
-                        foodSoldCountTextView.setText(String.format(Locale.US, "Đã bán: %d", soldCount));
-                    } else {
-                        foodSoldCountTextView.setVisibility(View.GONE);
-                    }
-                }
-
-                @Override
-                public void onError(String message) {
-                    foodSoldCountTextView.setVisibility(View.GONE);
-                }
-            });
+            bindStats(food);
 
-            // Load average rating
-            reviewRepository.getAverageRating(food.getFoodId(), new ReviewRepository.DataCallback<Double>() {
-                @Override
-                public void onSuccess(Double rating) {
-                    if (rating != null && rating > 0) {
-                        foodRatingTextView.setVisibility(View.VISIBLE);
-                        foodRatingTextView.setText(String.format(Locale.US, "★ %.1f", rating));
-                    } else {
-                        foodRatingTextView.setVisibility(View.GONE);
-                    }
-                }
-
-                @Override
-                public void onError(String message) {
-                    foodRatingTextView.setVisibility(View.GONE);
-                }
-            });
+            if (foodImageView.getWidth() > 0 && foodImageView.getHeight() > 0) {
+                imageWidth = foodImageView.getWidth();
+                imageHeight = foodImageView.getHeight();
+            }
 
             // Load image using Glide
             Glide.with(itemView.getContext())
@@ -144,5 +199,23 @@ public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder
                 }
             });
         }
+
+        public void bindStats(Food food) {
+            // Sold count is maintained on the food document itself
+            if (food.getSoldCount() > 0) {
+                foodSoldCountTextView.setVisibility(View.VISIBLE);
+                foodSoldCountTextView.setText(String.format(Locale.US, "Đã bán: %d", food.getSoldCount()));
+            } else {
+                foodSoldCountTextView.setVisibility(View.GONE);
+            }
+
+            // Average rating comes from the aggregate on the food document
+            if (food.getRatingCount() > 0) {
+                foodRatingTextView.setVisibility(View.VISIBLE);
+                foodRatingTextView.setText(String.format(Locale.US, "★ %.1f", food.getAverageRating()));
+            } else {
+                foodRatingTextView.setVisibility(View.GONE);
+            }
+        }
     }
 }
@@ -14,16 +14,28 @@ import com.deligo.app.R;
 import com.deligo.app.models.FoodSales;
 import com.deligo.app.utils.CurrencyUtils;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Locale;
 
-public class FoodSalesAdapter extends RecyclerView.Adapter<FoodSalesAdapter.FoodSalesViewHolder> {
-    private List<FoodSales> foodSalesList = new ArrayList<>();
+public class FoodSalesAdapter extends DiffListAdapter<FoodSales, FoodSalesAdapter.FoodSalesViewHolder> {
 
     public void setFoodSalesList(List<FoodSales> foodSalesList) {
-        this.foodSalesList = foodSalesList;
-        notifyDataSetChanged();
+        submitList(foodSalesList);
+    }
+
+    @Override
+    protected Object getItemKey(FoodSales item) {
+        return item.getFood() != null ? item.getFood().getFoodId() : null;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(FoodSales oldItem, FoodSales newItem) {
+        return oldItem.getQuantitySold() == newItem.getQuantitySold()
+                && oldItem.getFood() != null && newItem.getFood() != null
+                && Objects.equals(oldItem.getFood().getName(), newItem.getFood().getName())
+                && oldItem.getFood().getPrice() == newItem.getFood().getPrice()
+                && Objects.equals(oldItem.getFood().getImageUrl(), newItem.getFood().getImageUrl());
     }
 
     @NonNull
@@ -36,15 +48,10 @@ public class FoodSalesAdapter extends RecyclerView.Adapter<FoodSalesAdapter.Food
 
     @Override
     public void onBindViewHolder(@NonNull FoodSalesViewHolder holder, int position) {
-        FoodSales foodSales = foodSalesList.get(position);
+        FoodSales foodSales = getItem(position);
         holder.bind(foodSales);
     }
 
-    @Override
-    public int getItemCount() {
-        return foodSalesList.size();
-    }
-
     static class FoodSalesViewHolder extends RecyclerView.ViewHolder {
         private final ImageView ivFoodImage;
         private final TextView tvFoodName;
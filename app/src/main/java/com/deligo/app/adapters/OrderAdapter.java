@@ -12,15 +12,18 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.deligo.app.R;
 import com.deligo.app.models.Order;
 import com.deligo.app.utils.CurrencyUtils;
+import com.deligo.app.utils.OrderStatusUtils;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Locale;
 
-public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
-    private List<Order> orders = new ArrayList<>();
+public class OrderAdapter extends DiffListAdapter<Order, OrderAdapter.OrderViewHolder> {
+    // Payload for a row where only the order or payment status changed
+    static final String PAYLOAD_STATUS = "status";
+
     private OnOrderClickListener listener;
 
     public interface OnOrderClickListener {
@@ -32,8 +35,33 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
     }
 
     public void setOrders(List<Order> orders) {
-        this.orders = orders;
-        notifyDataSetChanged();
+        submitList(orders);
+    }
+
+    @Override
+    protected Object getItemKey(Order item) {
+        return item.getOrderId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Order oldItem, Order newItem) {
+        return sameStatus(oldItem, newItem) && sameExceptStatus(oldItem, newItem);
+    }
+
+    @Override
+    protected Object getChangePayload(Order oldItem, Order newItem) {
+        return sameExceptStatus(oldItem, newItem) ? PAYLOAD_STATUS : null;
+    }
+
+    static boolean sameStatus(Order oldItem, Order newItem) {
+        return oldItem.getStatus() == newItem.getStatus()
+                && Objects.equals(oldItem.getPaymentStatus(), newItem.getPaymentStatus());
+    }
+
+    static boolean sameExceptStatus(Order oldItem, Order newItem) {
+        return oldItem.getCreatedAt() == newItem.getCreatedAt()
+                && oldItem.getTotalAmount() == newItem.getTotalAmount()
+                && Objects.equals(oldItem.getCustomerId(), newItem.getCustomerId());
     }
 
     @NonNull
@@ -46,13 +74,17 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
 
     @Override
     public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-        Order order = orders.get(position);
+        Order order = getItem(position);
         holder.bind(order);
     }
 
     @Override
-    public int getItemCount() {
-        return orders.size();
+    public void onBindViewHolder(@NonNull OrderViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty()) {
+            holder.bindStatus(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
 
     class OrderViewHolder extends RecyclerView.ViewHolder {
@@ -69,7 +101,7 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onOrderClick(orders.get(position));
+                    listener.onOrderClick(getItem(position));
                 }
             });
         }
@@ -84,16 +116,20 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
             String dateStr = dateFormat.format(new Date(order.getCreatedAt()));
             tvOrderDate.setText(dateStr);
 
+            bindStatus(order);
+
+            // Total Amount
+            tvTotalAmount.setText(CurrencyUtils.formatVND(order.getTotalAmount()));
+        }
+
+        public void bindStatus(Order order) {
             // Order Status
-            tvOrderStatus.setText(capitalizeFirst(order.getOrderStatus()));
-            tvOrderStatus.setTextColor(getStatusColor(order.getOrderStatus()));
+            tvOrderStatus.setText(OrderStatusUtils.getLabel(itemView.getContext(), order));
+            tvOrderStatus.setTextColor(OrderStatusUtils.getColor(order.getStatus()));
 
             // Payment Status
             tvPaymentStatus.setText(capitalizeFirst(order.getPaymentStatus()));
             tvPaymentStatus.setTextColor(getStatusColor(order.getPaymentStatus()));
-
-            // Total Amount
-            tvTotalAmount.setText(CurrencyUtils.formatVND(order.getTotalAmount()));
         }
 
         private String capitalizeFirst(String text) {
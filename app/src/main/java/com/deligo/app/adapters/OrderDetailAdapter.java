@@ -12,15 +12,25 @@ import com.deligo.app.R;
 import com.deligo.app.models.OrderDetail;
 import com.deligo.app.utils.CurrencyUtils;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class OrderDetailAdapter extends RecyclerView.Adapter<OrderDetailAdapter.OrderDetailViewHolder> {
-    private List<OrderDetail> orderDetails = new ArrayList<>();
+public class OrderDetailAdapter extends DiffListAdapter<OrderDetail, OrderDetailAdapter.OrderDetailViewHolder> {
 
     public void setOrderDetails(List<OrderDetail> orderDetails) {
-        this.orderDetails = orderDetails;
-        notifyDataSetChanged();
+        submitList(orderDetails);
+    }
+
+    @Override
+    protected Object getItemKey(OrderDetail item) {
+        return item.getOrderDetailId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(OrderDetail oldItem, OrderDetail newItem) {
+        return oldItem.getQuantity() == newItem.getQuantity()
+                && oldItem.getUnitPrice() == newItem.getUnitPrice()
+                && Objects.equals(oldItem.getFoodName(), newItem.getFoodName());
     }
 
     @NonNull
@@ -33,15 +43,10 @@ public class OrderDetailAdapter extends RecyclerView.Adapter<OrderDetailAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull OrderDetailViewHolder holder, int position) {
-        OrderDetail orderDetail = orderDetails.get(position);
+        OrderDetail orderDetail = getItem(position);
         holder.bind(orderDetail);
     }
 
-    @Override
-    public int getItemCount() {
-        return orderDetails.size();
-    }
-
     static class OrderDetailViewHolder extends RecyclerView.ViewHolder {
         private TextView tvFoodName, tvQuantity, tvPrice;
 
@@ -54,8 +59,8 @@ public class OrderDetailAdapter extends RecyclerView.Adapter<OrderDetailAdapter.
 
         public void bind(OrderDetail orderDetail) {
             // Food name
-            if (orderDetail.getFood() != null) {
-                tvFoodName.setText(orderDetail.getFood().getName());
+            if (orderDetail.getFoodName() != null) {
+                tvFoodName.setText(orderDetail.getFoodName());
             } else {
                 tvFoodName.setText("Unknown Item");
             }
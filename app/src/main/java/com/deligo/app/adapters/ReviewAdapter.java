@@ -11,15 +11,25 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.deligo.app.R;
 import com.deligo.app.models.Review;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewViewHolder> {
-    private List<Review> reviewList = new ArrayList<>();
+public class ReviewAdapter extends DiffListAdapter<Review, ReviewAdapter.ReviewViewHolder> {
 
     public void setReviewList(List<Review> reviewList) {
-        this.reviewList = reviewList;
-        notifyDataSetChanged();
+        submitList(reviewList);
+    }
+
+    @Override
+    protected Object getItemKey(Review item) {
+        return item.getReviewId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(Review oldItem, Review newItem) {
+        return oldItem.getRating() == newItem.getRating()
+                && Objects.equals(oldItem.getComment(), newItem.getComment())
+                && Objects.equals(oldItem.getUserName(), newItem.getUserName());
     }
 
     @NonNull
@@ -32,15 +42,10 @@ public class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.ReviewView
 
     @Override
     public void onBindViewHolder(@NonNull ReviewViewHolder holder, int position) {
-        Review review = reviewList.get(position);
+        Review review = getItem(position);
         holder.bind(review);
     }
 
-    @Override
-    public int getItemCount() {
-        return reviewList.size();
-    }
-
     static class ReviewViewHolder extends RecyclerView.ViewHolder {
         private final TextView userNameTextView;
         private final TextView ratingTextView;
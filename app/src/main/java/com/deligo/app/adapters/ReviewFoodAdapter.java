@@ -15,11 +15,10 @@ import com.deligo.app.R;
 import com.deligo.app.models.OrderDetail;
 import com.deligo.app.utils.CurrencyUtils;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class ReviewFoodAdapter extends RecyclerView.Adapter<ReviewFoodAdapter.ReviewFoodViewHolder> {
-    private List<OrderDetail> orderDetails = new ArrayList<>();
+public class ReviewFoodAdapter extends DiffListAdapter<OrderDetail, ReviewFoodAdapter.ReviewFoodViewHolder> {
     private OnReviewClickListener reviewClickListener;
 
     public interface OnReviewClickListener {
@@ -31,8 +30,21 @@ public class ReviewFoodAdapter extends RecyclerView.Adapter<ReviewFoodAdapter.Re
     }
 
     public void setOrderDetails(List<OrderDetail> orderDetails) {
-        this.orderDetails = orderDetails;
-        notifyDataSetChanged();
+        submitList(orderDetails);
+    }
+
+    @Override
+    protected Object getItemKey(OrderDetail item) {
+        return item.getOrderDetailId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(OrderDetail oldItem, OrderDetail newItem) {
+        return oldItem.getQuantity() == newItem.getQuantity()
+                && oldItem.getUnitPrice() == newItem.getUnitPrice()
+                && Objects.equals(oldItem.getFoodId(), newItem.getFoodId())
+                && Objects.equals(oldItem.getFoodName(), newItem.getFoodName())
+                && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
     }
 
     @NonNull
@@ -45,15 +57,10 @@ public class ReviewFoodAdapter extends RecyclerView.Adapter<ReviewFoodAdapter.Re
 
     @Override
     public void onBindViewHolder(@NonNull ReviewFoodViewHolder holder, int position) {
-        OrderDetail orderDetail = orderDetails.get(position);
+        OrderDetail orderDetail = getItem(position);
         holder.bind(orderDetail, reviewClickListener);
     }
 
-    @Override
-    public int getItemCount() {
-        return orderDetails.size();
-    }
-
     static class ReviewFoodViewHolder extends RecyclerView.ViewHolder {
         private ImageView ivFoodImage;
         private TextView tvFoodName;
@@ -71,9 +78,9 @@ public class ReviewFoodAdapter extends RecyclerView.Adapter<ReviewFoodAdapter.Re
         }
 
         public void bind(OrderDetail orderDetail, OnReviewClickListener listener) {
-            if (orderDetail.getFood() != null) {
-                // Food name
-                tvFoodName.setText(orderDetail.getFood().getName());
+            if (orderDetail.getFoodId() != null) {
+                // Food name, as it was when the order was placed
+                tvFoodName.setText(orderDetail.getFoodName() != null ? orderDetail.getFoodName() : "Unknown Item");
 
                 // Food price
                 tvFoodPrice.setText(CurrencyUtils.formatVND(orderDetail.getUnitPrice()));
@@ -83,7 +90,7 @@ public class ReviewFoodAdapter extends RecyclerView.Adapter<ReviewFoodAdapter.Re
 
                 // Load food image
                 Glide.with(itemView.getContext())
-                        .load(orderDetail.getFood().getImageUrl())
+                        .load(orderDetail.getImageUrl())
                         .placeholder(R.drawable.ic_launcher_background)
                         .error(R.drawable.ic_launcher_background)
                         .centerCrop()
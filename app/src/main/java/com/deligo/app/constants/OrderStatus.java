@@ -1,22 +1,47 @@
 package com.deligo.app.constants;
 
+/**
+ * Order lifecycle. Orders store the numeric code ("statusCode"), which is what queries and
+ * indexes use; the Vietnamese name is still written to "orderStatus" for older app versions.
+ * Codes are spaced so new states can be slotted in without renumbering.
+ */
 public enum OrderStatus {
-    PENDING("Chờ xác nhận"),
-    ACCEPTED("Đã nhận"),
-    PREPARING("Đang chuẩn bị"),
-    COMPLETED("Đã hoàn thành"),
-    CANCELLED("Bị huỷ");
+    PENDING(10, "Chờ xác nhận"),
+    ACCEPTED(20, "Đã nhận"),
+    PREPARING(30, "Đang chuẩn bị"),
+    COMPLETED(40, "Đã hoàn thành"),
+    CANCELLED(90, "Bị huỷ");
 
+    private final int code;
     private final String vietnameseName;
 
-    OrderStatus(String vietnameseName) {
+    OrderStatus(int code, String vietnameseName) {
+        this.code = code;
         this.vietnameseName = vietnameseName;
     }
 
+    public int getCode() {
+        return code;
+    }
+
     public String getVietnameseName() {
         return vietnameseName;
     }
 
+    /**
+     * Get OrderStatus from its stored code
+     * @param code Value of the order's statusCode field
+     * @return OrderStatus enum or null if not found
+     */
+    public static OrderStatus fromCode(int code) {
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        return null;
+    }
+
     /**
      * Get OrderStatus from Vietnamese name
      * @param vietnameseName Vietnamese status name
@@ -33,6 +58,49 @@ public enum OrderStatus {
         return null;
     }
 
+    /**
+     * Resolve any status string used in the app to an OrderStatus.
+     * Accepts the Vietnamese names, the legacy "Đã nhận đơn" spelling and
+     * the English keys passed to updateOrderStatus (e.g. "completed").
+     * @param value Status string
+     * @return OrderStatus enum or null if not recognised
+     */
+    public static OrderStatus resolve(String value) {
+        if (value == null) return null;
+
+        OrderStatus status = fromVietnameseName(value);
+        if (status != null) return status;
+
+        for (OrderStatus candidate : OrderStatus.values()) {
+            if (candidate.name().equalsIgnoreCase(value)) {
+                return candidate;
+            }
+        }
+        if ("Đã nhận đơn".equalsIgnoreCase(value)) {
+            return ACCEPTED;
+        }
+        return null;
+    }
+
+    /**
+     * Check whether the admin may move an order from this status to the given one
+     * @param next Target status
+     * @return true if the transition is allowed
+     */
+    public boolean canTransitionTo(OrderStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == ACCEPTED || next == CANCELLED;
+            case ACCEPTED:
+                return next == PREPARING || next == CANCELLED;
+            case PREPARING:
+                return next == COMPLETED || next == CANCELLED;
+            default:
+                // Completed and cancelled orders are final
+                return false;
+        }
+    }
+
     /**
      * Check if a string matches this status (case-insensitive, supports partial match)
      * @param statusString Status string to check
@@ -19,7 +19,9 @@ import com.deligo.app.R;
 import com.deligo.app.activities.AdminMainActivity;
 import com.deligo.app.activities.AdminOrderDetailActivity;
 import com.deligo.app.adapters.AdminOrderAdapter;
+import com.deligo.app.constants.OrderStatus;
 import com.deligo.app.models.Order;
+import com.deligo.app.utils.EndlessScrollListener;
 import com.deligo.app.utils.UIHelper;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.AdminOrderViewModel;
@@ -57,7 +59,10 @@ public class AdminOrdersFragment extends Fragment implements AdminOrderAdapter.O
 
     private void setupRecyclerView() {
         adapter = new AdminOrderAdapter(this);
-        rvOrders.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        rvOrders.setLayoutManager(layoutManager);
+        // Load the next page of orders as the list nears its end
+        rvOrders.addOnScrollListener(new EndlessScrollListener(layoutManager, () -> viewModel.loadMoreOrders()));
         rvOrders.setAdapter(adapter);
     }
 
@@ -109,7 +114,7 @@ public class AdminOrdersFragment extends Fragment implements AdminOrderAdapter.O
             filteredOrders = allOrders;
         } else {
             filteredOrders = allOrders.stream()
-                    .filter(order -> matchesStatus(order.getOrderStatus(), selectedStatus))
+                    .filter(order -> order.getStatus() == OrderStatus.resolve(selectedStatus))
                     .collect(Collectors.toList());
         }
 
@@ -124,24 +129,10 @@ public class AdminOrdersFragment extends Fragment implements AdminOrderAdapter.O
             rvOrders.setVisibility(View.VISIBLE);
         }
     }
-    
-    private boolean matchesStatus(String orderStatus, String filterStatus) {
-        if (orderStatus == null || filterStatus == null) return false;
-        
-        String orderLower = orderStatus.toLowerCase();
-        String filterLower = filterStatus.toLowerCase();
-        
-        // Direct match
-        if (orderLower.equals(filterLower)) return true;
-        
-        // Match Vietnamese to English
-        if (filterLower.equals("pending") && orderLower.contains("chờ")) return true;
-        if (filterLower.equals("accepted") && orderLower.contains("nhận")) return true;
-        if (filterLower.equals("preparing") && orderLower.contains("chuẩn bị")) return true;
-        if (filterLower.equals("completed") && orderLower.contains("hoàn thành")) return true;
-        if (filterLower.equals("cancelled") && (orderLower.contains("huỷ") || orderLower.contains("hủy"))) return true;
-        
-        return false;
+
+    @Override
+    public void onSelectionChanged(int selectedCount) {
+        // Bulk actions are only offered on AdminOrdersActivity
     }
 
     @Override
@@ -153,12 +144,12 @@ public class AdminOrdersFragment extends Fragment implements AdminOrderAdapter.O
 
     @Override
     public void onAcceptOrder(Order order) {
-        viewModel.acceptOrder(order.getOrderId());
+        viewModel.acceptOrder(order);
     }
 
     @Override
-    public void onUpdateStatus(Order order, String newStatus) {
-        viewModel.updateOrderStatus(order.getOrderId(), newStatus);
+    public void onUpdateStatus(Order order, OrderStatus newStatus) {
+        viewModel.updateOrderStatus(order, newStatus);
     }
 
     private void setupHeader(View view) {
@@ -76,11 +76,14 @@ public class CartFragment extends Fragment implements CartAdapter.OnCartItemActi
 
     private void setupCheckoutButton() {
         checkoutButton.setOnClickListener(v -> {
-            // Navigate to checkout activity
-            Intent intent = new Intent(getActivity(), CheckoutActivity.class);
-            intent.putExtra("cartItems", (java.io.Serializable) cartViewModel.getCartItems().getValue());
-            intent.putExtra("totalAmount", cartViewModel.getCartTotal().getValue());
-            startActivity(intent);
+            // Write queued quantity edits first, then navigate to checkout activity
+            cartViewModel.flushPendingChanges(() -> {
+                if (getActivity() == null) return;
+                Intent intent = new Intent(getActivity(), CheckoutActivity.class);
+                intent.putExtra("cartItems", (java.io.Serializable) cartViewModel.getCartItems().getValue());
+                intent.putExtra("totalAmount", cartViewModel.getCartTotal().getValue());
+                startActivity(intent);
+            });
         });
     }
 
@@ -124,12 +127,12 @@ public class CartFragment extends Fragment implements CartAdapter.OnCartItemActi
 
     @Override
     public void onQuantityChanged(CartItem cartItem, int newQuantity) {
-        cartViewModel.updateQuantity(cartItem.getCartItemId(), newQuantity);
+        cartViewModel.updateQuantity(cartItem, newQuantity);
     }
 
     @Override
     public void onRemoveItem(CartItem cartItem) {
-        cartViewModel.removeItem(cartItem.getCartItemId());
+        cartViewModel.removeItem(cartItem);
     }
 
     @Override
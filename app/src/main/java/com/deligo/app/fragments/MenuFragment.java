@@ -30,13 +30,18 @@ import com.deligo.app.utils.UIHelper;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.MenuViewModel;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Fragment displaying the menu/home screen
  */
 public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickListener {
     private static final String TAG = "MenuFragment";
+    private static final String ALL_CATEGORIES = "";
     
     private MenuViewModel menuViewModel;
     private FoodAdapter foodAdapter;
@@ -46,6 +51,10 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
     private ProgressBar progressBar;
     private TextView emptyTextView;
     private String selectedCategoryId = null;
+    // Chips by categoryId, ALL_CATEGORIES for the "All" chip
+    private final Map<String, Button> categoryButtons = new LinkedHashMap<>();
+    private Map<String, String> categoryNames = new LinkedHashMap<>();
+    private Map<String, Integer> categoryCounts = new HashMap<>();
 
     @Nullable
     @Override
@@ -59,9 +68,8 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
         setupSearchView();
         observeViewModel();
 
-        // Load initial data
-        Log.d(TAG, "onCreateView: Loading foods and categories");
-        menuViewModel.loadFoods();
+        // Foods are loaded in onResume, from the local catalog first
+        Log.d(TAG, "onCreateView: Loading categories");
         menuViewModel.loadCategories();
         
         return view;
@@ -71,6 +79,8 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
         foodRecyclerView = view.findViewById(R.id.foodRecyclerView);
         searchView = view.findViewById(R.id.searchView);
         categoryChipGroup = view.findViewById(R.id.categoryChipGroup);
+        // Chips belong to the previous view if the fragment's view was recreated
+        categoryButtons.clear();
         progressBar = view.findViewById(R.id.progressBar);
         emptyTextView = view.findViewById(R.id.emptyTextView);
     }
@@ -90,14 +100,17 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
-                menuViewModel.searchFoods(query);
+                menuViewModel.searchFoodsNow(query);
                 return true;
             }
 
             @Override
             public boolean onQueryTextChange(String newText) {
+                // Search is local, so results follow the text as it is typed
                 if (newText.isEmpty()) {
-                    menuViewModel.loadFoods();
+                    menuViewModel.searchFoodsNow(null);
+                } else {
+                    menuViewModel.searchFoods(newText);
                 }
                 return true;
             }
@@ -122,6 +135,13 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
             }
         });
 
+        menuViewModel.getCategoryCounts().observe(getViewLifecycleOwner(), counts -> {
+            if (counts != null) {
+                categoryCounts = counts;
+                updateCategoryLabels();
+            }
+        });
+
         menuViewModel.getIsLoading().observe(getViewLifecycleOwner(), isLoading -> {
             UIHelper.showLoading(progressBar, isLoading);
         });
@@ -131,30 +151,58 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
                 Log.e(TAG, "observeViewModel: Error occurred - " + errorMessage);
                 String friendlyMessage = UIHelper.getFirestoreErrorMessage(errorMessage);
                 UIHelper.showErrorSnackbar(getView(), 
-                    friendlyMessage, v -> menuViewModel.loadFoods());
+                    friendlyMessage, v -> menuViewModel.refreshFoods());
             }
         });
     }
 
+    // Diff the chips against the new categories instead of recreating the whole group
     private void setupCategoryChips(List<Category> categories) {
         if (categoryChipGroup == null || categories == null) {
             return;
         }
 
-        categoryChipGroup.removeAllViews();
+        Map<String, String> names = new LinkedHashMap<>();
+        names.put(ALL_CATEGORIES, getString(R.string.all));
+        for (Category category : categories) {
+            names.put(category.getCategoryId(), category.getCategoryName());
+        }
 
-        // Add "All" button
-        Button allButton = createCategoryButton("Tất cả", null, true);
-        categoryChipGroup.addView(allButton);
+        // Drop chips whose category is gone
+        Iterator<Map.Entry<String, Button>> iterator = categoryButtons.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Button> entry = iterator.next();
+            if (!names.containsKey(entry.getKey())) {
+                categoryChipGroup.removeView(entry.getValue());
+                iterator.remove();
+            }
+        }
+        if (selectedCategoryId != null && !names.containsKey(selectedCategoryId)) {
+            selectedCategoryId = null;
+            menuViewModel.filterByCategory(null);
+        }
 
-        // Add category buttons
-        for (Category category : categories) {
-            Button categoryButton = createCategoryButton(category.getCategoryName(), category.getCategoryId(), false);
-            categoryChipGroup.addView(categoryButton);
+        // Add new chips and move existing ones only when their position changed
+        int position = 0;
+        for (String key : names.keySet()) {
+            Button button = categoryButtons.get(key);
+            if (button == null) {
+                button = createCategoryButton(key);
+                categoryButtons.put(key, button);
+                categoryChipGroup.addView(button, position);
+            } else if (categoryChipGroup.getChildAt(position) != button) {
+                categoryChipGroup.removeView(button);
+                categoryChipGroup.addView(button, position);
+            }
+            position++;
         }
+
+        categoryNames = names;
+        updateCategoryLabels();
+        updateAllCategoryButtons();
     }
 
-    private Button createCategoryButton(String name, String categoryId, boolean isSelected) {
+    private Button createCategoryButton(String key) {
         Button button = new Button(getContext());
         
         // Set layout params
@@ -165,15 +213,11 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
         params.setMargins(0, 0, 16, 0);
         button.setLayoutParams(params);
         
-        // Set text
-        button.setText(name);
         button.setTextSize(14);
         button.setPadding(32, 16, 32, 16);
         
-        // Set style based on selection
-        updateButtonStyle(button, isSelected);
-        
         // Set click listener
+        String categoryId = ALL_CATEGORIES.equals(key) ? null : key;
         button.setOnClickListener(v -> {
             selectedCategoryId = categoryId;
             menuViewModel.filterByCategory(categoryId);
@@ -183,6 +227,22 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
         return button;
     }
 
+    // Labels carry the number of foods, counted from the local menu
+    private void updateCategoryLabels() {
+        int total = 0;
+        for (Integer count : categoryCounts.values()) {
+            total += count;
+        }
+        for (Map.Entry<String, Button> entry : categoryButtons.entrySet()) {
+            String key = entry.getKey();
+            Integer count = ALL_CATEGORIES.equals(key) ? Integer.valueOf(total) : categoryCounts.get(key);
+            String label = getString(R.string.category_chip_label, categoryNames.get(key), count != null ? count : 0);
+            if (!label.contentEquals(entry.getValue().getText())) {
+                entry.getValue().setText(label);
+            }
+        }
+    }
+
     private void updateButtonStyle(Button button, boolean isSelected) {
         if (isSelected) {
             button.setBackgroundResource(R.drawable.category_button_selected);
@@ -194,21 +254,9 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
     }
 
     private void updateAllCategoryButtons() {
-        for (int i = 0; i < categoryChipGroup.getChildCount(); i++) {
-            View child = categoryChipGroup.getChildAt(i);
-            if (child instanceof Button) {
-                Button button = (Button) child;
-                boolean isSelected;
-                
-                if (i == 0) {
-                    // "All" button
-                    isSelected = (selectedCategoryId == null);
-                } else {
-                    isSelected = false;
-                }
-                
-                updateButtonStyle(button, isSelected);
-            }
+        String selectedKey = selectedCategoryId != null ? selectedCategoryId : ALL_CATEGORIES;
+        for (Map.Entry<String, Button> entry : categoryButtons.entrySet()) {
+            updateButtonStyle(entry.getValue(), entry.getKey().equals(selectedKey));
         }
     }
 
@@ -222,7 +270,7 @@ public class MenuFragment extends Fragment implements FoodAdapter.OnFoodClickLis
     @Override
     public void onResume() {
         super.onResume();
-        // Reload data when fragment becomes visible
+        // Cheap: shows the local catalog and runs at most one small delta query per sync interval
         if (menuViewModel != null) {
             menuViewModel.loadFoods();
         }
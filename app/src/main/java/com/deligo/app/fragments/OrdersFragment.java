@@ -18,6 +18,7 @@ import com.deligo.app.R;
 import com.deligo.app.activities.OrderDetailActivity;
 import com.deligo.app.adapters.OrderAdapter;
 import com.deligo.app.models.Order;
+import com.deligo.app.utils.EndlessScrollListener;
 import com.deligo.app.utils.UIHelper;
 import com.deligo.app.utils.ViewModelFactory;
 import com.deligo.app.viewmodels.OrderViewModel;
@@ -62,7 +63,10 @@ public class OrdersFragment extends Fragment implements OrderAdapter.OnOrderClic
 
     private void setupRecyclerView() {
         orderAdapter = new OrderAdapter(this);
-        ordersRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        ordersRecyclerView.setLayoutManager(layoutManager);
+        // Load the next page of orders as the list nears its end
+        ordersRecyclerView.addOnScrollListener(new EndlessScrollListener(layoutManager, () -> orderViewModel.loadMoreOrderHistory()));
         ordersRecyclerView.setAdapter(orderAdapter);
     }
 
@@ -0,0 +1,32 @@
+package com.deligo.app.models;
+
+import java.util.List;
+
+/**
+ * Outcome of moving several orders to one status. Updated orders already carry the new
+ * status; skipped orders were not in a status that allows the move; failed orders could
+ * not be written.
+ */
+public class BulkStatusResult {
+    private final List<Order> updatedOrders;
+    private final List<String> skippedOrderIds;
+    private final List<String> failedOrderIds;
+
+    public BulkStatusResult(List<Order> updatedOrders, List<String> skippedOrderIds, List<String> failedOrderIds) {
+        this.updatedOrders = updatedOrders;
+        this.skippedOrderIds = skippedOrderIds;
+        this.failedOrderIds = failedOrderIds;
+    }
+
+    public List<Order> getUpdatedOrders() {
+        return updatedOrders;
+    }
+
+    public List<String> getSkippedOrderIds() {
+        return skippedOrderIds;
+    }
+
+    public List<String> getFailedOrderIds() {
+        return failedOrderIds;
+    }
+}
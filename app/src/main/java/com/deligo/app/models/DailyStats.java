@@ -0,0 +1,71 @@
+package com.deligo.app.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-day sales rollup stored in the "dailyStats" collection (document id = yyyy-MM-dd).
+ * Kept current by OrderRepositoryImpl whenever an order is created or changes status,
+ * so statistics can read one document per day instead of every order.
+ */
+public class DailyStats {
+    private String dateKey;
+    private long dayStart;
+    private double revenue;
+    private long orderCount;
+    private Map<String, Long> statusCounts = new HashMap<>();   // OrderStatus name -> orders
+    private Map<String, Long> itemQuantities = new HashMap<>(); // foodId -> quantity sold (completed orders)
+
+    // Required empty constructor for Firestore
+    public DailyStats() {
+    }
+
+    // Getters and Setters
+    public String getDateKey() {
+        return dateKey;
+    }
+
+    public void setDateKey(String dateKey) {
+        this.dateKey = dateKey;
+    }
+
+    public long getDayStart() {
+        return dayStart;
+    }
+
+    public void setDayStart(long dayStart) {
+        this.dayStart = dayStart;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts != null ? statusCounts : new HashMap<>();
+    }
+
+    public Map<String, Long> getItemQuantities() {
+        return itemQuantities;
+    }
+
+    public void setItemQuantities(Map<String, Long> itemQuantities) {
+        this.itemQuantities = itemQuantities != null ? itemQuantities : new HashMap<>();
+    }
+}
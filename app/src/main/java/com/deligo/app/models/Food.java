@@ -1,6 +1,12 @@
 package com.deligo.app.models;
 
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.ServerTimestamp;
+
 import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Food implements Serializable {
     private String foodId;
@@ -11,6 +17,13 @@ public class Food implements Serializable {
     private String imageUrl;
     private boolean isAvailable;
     private int soldCount;
+    // Rating aggregate maintained by ReviewRepositoryImpl.addReview
+    private long ratingSum;
+    private int ratingCount;
+    private Map<String, Long> ratingHistogram = new HashMap<>(); // "1".."5" -> number of reviews
+    // Server time of the last write to the document, used by FoodCatalog's delta sync
+    @ServerTimestamp
+    private Date updatedAt;
 
     // Required empty constructor for Firestore
     public Food() {
@@ -26,6 +39,18 @@ public class Food implements Serializable {
         this.isAvailable = isAvailable;
     }
 
+    // Independent copy, so a cached food isn't changed through the instance handed to a caller
+    public Food(Food other) {
+        this(other.foodId, other.categoryId, other.name, other.description, other.price, other.imageUrl, other.isAvailable);
+        this.soldCount = other.soldCount;
+        this.ratingSum = other.ratingSum;
+        this.ratingCount = other.ratingCount;
+        if (other.ratingHistogram != null) {
+            this.ratingHistogram = new HashMap<>(other.ratingHistogram);
+        }
+        this.updatedAt = other.updatedAt != null ? new Date(other.updatedAt.getTime()) : null;
+    }
+
     // Getters and Setters
     public String getFoodId() {
         return foodId;
@@ -90,4 +115,41 @@ public class Food implements Serializable {
     public void setSoldCount(int soldCount) {
         this.soldCount = soldCount;
     }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Map<String, Long> getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(Map<String, Long> ratingHistogram) {
+        this.ratingHistogram = ratingHistogram != null ? ratingHistogram : new HashMap<>();
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Exclude
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
 }
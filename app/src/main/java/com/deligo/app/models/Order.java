@@ -1,5 +1,10 @@
 package com.deligo.app.models;
 
+import com.deligo.app.constants.OrderStatus;
+import com.google.firebase.firestore.Exclude;
+
+import java.util.List;
+
 public class Order {
     private String orderId;
     private String customerId;
@@ -9,8 +14,13 @@ public class Order {
     private String paymentMethod;
     private String paymentStatus;
     private String orderStatus;
+    private int statusCode; // OrderStatus code, 0 for orders not migrated yet
+    private long statusChangedAt;
+    private long version; // Incremented on every status write
+    private boolean aggregated; // Counted in the daily rollups; false for orders placed before they existed
     private String note;
     private long createdAt;
+    private List<OrderItem> items; // Embedded line items, null for orders created before they existed
 
     // Required empty constructor for Firestore
     public Order() {
@@ -95,6 +105,51 @@ public class Order {
         this.orderStatus = orderStatus;
     }
 
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public long getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public void setStatusChangedAt(long statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    public void setAggregated(boolean aggregated) {
+        this.aggregated = aggregated;
+    }
+
+    // Status from the numeric code, falling back to the text of orders not migrated yet
+    @Exclude
+    public OrderStatus getStatus() {
+        OrderStatus status = OrderStatus.fromCode(statusCode);
+        return status != null ? status : OrderStatus.resolve(orderStatus);
+    }
+
+    @Exclude
+    public void setStatus(OrderStatus status) {
+        this.statusCode = status.getCode();
+        this.orderStatus = status.getVietnameseName();
+    }
+
     public String getNote() {
         return note;
     }
@@ -110,4 +165,12 @@ public class Order {
     public void setCreatedAt(long createdAt) {
         this.createdAt = createdAt;
     }
+
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItem> items) {
+        this.items = items;
+    }
 }
@@ -1,12 +1,20 @@
 package com.deligo.app.models;
 
+import com.google.firebase.firestore.Exclude;
+
+/**
+ * One line of an order. Name, image and unit price are snapshots taken when the order was
+ * placed, so order screens show what the customer bought without reading the foods.
+ */
 public class OrderDetail {
     private String orderDetailId;
     private String orderId;
     private String foodId;
     private int quantity;
     private double unitPrice;
-    private Food food; // Populated when retrieved
+    private String foodName;
+    private String imageUrl;
+    private Food food; // Only set while backfilling legacy lines, never stored
 
     // Required empty constructor for Firestore
     public OrderDetail() {
@@ -20,6 +28,12 @@ public class OrderDetail {
         this.unitPrice = unitPrice;
     }
 
+    public OrderDetail(String orderDetailId, String orderId, OrderItem item) {
+        this(orderDetailId, orderId, item.getFoodId(), item.getQuantity(), item.getUnitPrice());
+        this.foodName = item.getFoodName();
+        this.imageUrl = item.getImageUrl();
+    }
+
     // Getters and Setters
     public String getOrderDetailId() {
         return orderDetailId;
@@ -61,10 +75,28 @@ public class OrderDetail {
         this.unitPrice = unitPrice;
     }
 
+    public String getFoodName() {
+        return foodName;
+    }
+
+    public void setFoodName(String foodName) {
+        this.foodName = foodName;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    @Exclude
     public Food getFood() {
         return food;
     }
 
+    @Exclude
     public void setFood(Food food) {
         this.food = food;
     }
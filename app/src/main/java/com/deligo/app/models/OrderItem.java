@@ -0,0 +1,67 @@
+package com.deligo.app.models;
+
+/**
+ * Compact line item embedded in the order document ("items" array), so an order
+ * and its lines arrive in a single read. Name and image are snapshots taken when
+ * the order was placed.
+ */
+public class OrderItem {
+    private String foodId;
+    private String foodName;
+    private double unitPrice;
+    private int quantity;
+    private String imageUrl;
+
+    // Required empty constructor for Firestore
+    public OrderItem() {
+    }
+
+    public OrderItem(String foodId, String foodName, double unitPrice, int quantity, String imageUrl) {
+        this.foodId = foodId;
+        this.foodName = foodName;
+        this.unitPrice = unitPrice;
+        this.quantity = quantity;
+        this.imageUrl = imageUrl;
+    }
+
+    // Getters and Setters
+    public String getFoodId() {
+        return foodId;
+    }
+
+    public void setFoodId(String foodId) {
+        this.foodId = foodId;
+    }
+
+    public String getFoodName() {
+        return foodName;
+    }
+
+    public void setFoodName(String foodName) {
+        this.foodName = foodName;
+    }
+
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+}
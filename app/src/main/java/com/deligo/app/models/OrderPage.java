@@ -0,0 +1,29 @@
+package com.deligo.app.models;
+
+import java.util.List;
+
+/**
+ * One page of orders, newest first. Pass the last order of a page as the cursor
+ * for the next one; hasMore is false once the end of the list is reached.
+ */
+public class OrderPage {
+    private final List<Order> orders;
+    private final boolean hasMore;
+
+    public OrderPage(List<Order> orders, boolean hasMore) {
+        this.orders = orders;
+        this.hasMore = hasMore;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public Order getLastOrder() {
+        return orders.isEmpty() ? null : orders.get(orders.size() - 1);
+    }
+}
@@ -0,0 +1,59 @@
+package com.deligo.app.models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of one statistics refresh: every figure the admin dashboard shows,
+ * computed in a single pass over the same date range.
+ */
+public final class StatisticsSnapshot {
+    private final long startDate;
+    private final long endDate;
+    private final double totalRevenue;
+    private final int orderCount;
+    private final Map<String, Integer> ordersByStatus;
+    private final Map<String, Double> dailyRevenue;
+    private final List<FoodSales> topSellingFoods;
+
+    public StatisticsSnapshot(long startDate, long endDate, double totalRevenue, int orderCount,
+                              Map<String, Integer> ordersByStatus, Map<String, Double> dailyRevenue,
+                              List<FoodSales> topSellingFoods) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalRevenue = totalRevenue;
+        this.orderCount = orderCount;
+        this.ordersByStatus = Collections.unmodifiableMap(ordersByStatus);
+        this.dailyRevenue = Collections.unmodifiableMap(dailyRevenue);
+        this.topSellingFoods = Collections.unmodifiableList(topSellingFoods);
+    }
+
+    public long getStartDate() {
+        return startDate;
+    }
+
+    public long getEndDate() {
+        return endDate;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public Map<String, Integer> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+
+    public Map<String, Double> getDailyRevenue() {
+        return dailyRevenue;
+    }
+
+    public List<FoodSales> getTopSellingFoods() {
+        return topSellingFoods;
+    }
+}
@@ -1,6 +1,7 @@
 package com.deligo.app.repositories;
 
 import com.deligo.app.models.Food;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.HashMap;
@@ -15,6 +16,8 @@ public class AdminFoodRepositoryImpl implements AdminFoodRepository {
 
     @Override
     public void addFood(Food food, ActionCallback callback) {
+        // A null updatedAt is filled in with the server time (@ServerTimestamp)
+        food.setUpdatedAt(null);
         firestore.collection("foods")
                 .add(food)
                 .addOnSuccessListener(documentReference -> {
@@ -32,11 +35,15 @@ public class AdminFoodRepositoryImpl implements AdminFoodRepository {
         updates.put("price", food.getPrice());
         updates.put("imageUrl", food.getImageUrl());
         updates.put("available", food.isAvailable());
+        updates.put("updatedAt", FieldValue.serverTimestamp());
 
         firestore.collection("foods")
                 .document(foodId)
                 .update(updates)
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnSuccessListener(aVoid -> {
+                    FoodBatchLoader.getInstance().invalidate(foodId);
+                    callback.onSuccess();
+                })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
@@ -45,11 +52,15 @@ public class AdminFoodRepositoryImpl implements AdminFoodRepository {
         // Set available to false instead of deleting
         Map<String, Object> updates = new HashMap<>();
         updates.put("available", false);
+        updates.put("updatedAt", FieldValue.serverTimestamp());
 
         firestore.collection("foods")
                 .document(foodId)
                 .update(updates)
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnSuccessListener(aVoid -> {
+                    FoodBatchLoader.getInstance().invalidate(foodId);
+                    callback.onSuccess();
+                })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
@@ -57,11 +68,15 @@ public class AdminFoodRepositoryImpl implements AdminFoodRepository {
     public void toggleFoodAvailability(String foodId, boolean isAvailable, ActionCallback callback) {
         Map<String, Object> updates = new HashMap<>();
         updates.put("available", isAvailable);
+        updates.put("updatedAt", FieldValue.serverTimestamp());
 
         firestore.collection("foods")
                 .document(foodId)
                 .update(updates)
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnSuccessListener(aVoid -> {
+                    FoodBatchLoader.getInstance().invalidate(foodId);
+                    callback.onSuccess();
+                })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 }
@@ -1,14 +1,16 @@
 package com.deligo.app.repositories;
 
 import com.deligo.app.models.CartItem;
+import com.deligo.app.models.Food;
 
 import java.util.List;
 
 public interface CartRepository {
     void getCartItems(String userId, DataCallback<List<CartItem>> callback);
-    void addToCart(String userId, String foodId, int quantity, String note, ActionCallback callback);
-    void updateCartItem(String cartItemId, int quantity, ActionCallback callback);
-    void removeCartItem(String cartItemId, ActionCallback callback);
+    void addToCart(String userId, Food food, int quantity, String note, ActionCallback callback);
+    // Items are addressed by their full path carts/{cartId}/cartItems/{cartItemId}
+    void updateCartItem(String cartId, String cartItemId, int quantity, ActionCallback callback);
+    void removeCartItem(String cartId, String cartItemId, ActionCallback callback);
     void clearCart(String userId, ActionCallback callback);
     void getCartTotal(String userId, DataCallback<Double> callback);
 
@@ -1,11 +1,21 @@
 package com.deligo.app.repositories;
 
-import com.deligo.app.models.Cart;
+import android.content.Context;
+import android.content.SharedPreferences;
+
 import com.deligo.app.models.CartItem;
 import com.deligo.app.models.Food;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -13,66 +23,66 @@ import java.util.List;
 import java.util.Map;
 
 public class CartRepositoryImpl implements CartRepository {
+    // Users whose legacy carts have already been merged on this install, kept across restarts
+    private static final String PREFS_NAME = "cart_migrations";
+
     private final FirebaseFirestore firestore;
     private final FoodRepository foodRepository;
+    private final SharedPreferences migratedUsers;
 
     public CartRepositoryImpl() {
         this.firestore = FirebaseFirestore.getInstance();
         this.foodRepository = new FoodRepositoryImpl();
+        this.migratedUsers = FirebaseApp.getInstance().getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
     }
 
     @Override
     public void getCartItems(String userId, DataCallback<List<CartItem>> callback) {
         // First, get or create the cart for the user
-        getOrCreateCart(userId, new DataCallback<String>() {
+        resolveCart(userId, new DataCallback<String>() {
             @Override
             public void onSuccess(String cartId) {
                 // Get cart items from subcollection
-                firestore.collection("carts")
-                        .document(cartId)
-                        .collection("cartItems")
+                cartRef(cartId).collection("cartItems")
                         .get()
                         .addOnSuccessListener(queryDocumentSnapshots -> {
                             List<CartItem> cartItems = new ArrayList<>();
-                            int totalItems = queryDocumentSnapshots.size();
-                            
-                            if (totalItems == 0) {
+                            if (queryDocumentSnapshots.isEmpty()) {
                                 callback.onSuccess(cartItems);
                                 return;
                             }
 
-                            final int[] processedCount = {0};
-                            
+                            List<String> foodIds = new ArrayList<>();
                             for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
                                 CartItem cartItem = document.toObject(CartItem.class);
                                 cartItem.setCartItemId(document.getId());
                                 cartItem.setCartId(cartId);
-                                
-                                // Fetch food details for each cart item
-                                foodRepository.getFoodById(cartItem.getFoodId(), new FoodRepository.DataCallback<Food>() {
-                                    @Override
-                                    public void onSuccess(Food food) {
+                                cartItems.add(cartItem);
+                                foodIds.add(cartItem.getFoodId());
+                            }
+
+                            // Fetch food details for all cart items in one batched lookup
+                            foodRepository.getFoodsByIds(foodIds, new FoodRepository.DataCallback<Map<String, Food>>() {
+                                @Override
+                                public void onSuccess(Map<String, Food> foods) {
+                                    for (CartItem cartItem : cartItems) {
+                                        Food food = foods.get(cartItem.getFoodId());
                                         cartItem.setFood(food);
-                                        cartItems.add(cartItem);
-                                        processedCount[0]++;
-                                        
-                                        if (processedCount[0] == totalItems) {
-                                            callback.onSuccess(cartItems);
+                                        if (food != null) {
+                                            // Show the current menu price; the stored one is only a snapshot
+                                            cartItem.setPrice(food.getPrice());
                                         }
                                     }
+                                    callback.onSuccess(cartItems);
+                                }
 
-                                    @Override
-                                    public void onError(String message) {
-                                        // Still add the cart item even if food fetch fails
-                                        cartItems.add(cartItem);
-                                        processedCount[0]++;
-                                        
-                                        if (processedCount[0] == totalItems) {
-                                            callback.onSuccess(cartItems);
-                                        }
-                                    }
-                                });
-                            }
+                                @Override
+                                public void onError(String message) {
+                                    // Still return the cart items even if food fetch fails
+                                    callback.onSuccess(cartItems);
+                                }
+                            });
                         })
                         .addOnFailureListener(e -> callback.onError(e.getMessage()));
             }
@@ -85,62 +95,31 @@ public class CartRepositoryImpl implements CartRepository {
     }
 
     @Override
-    public void addToCart(String userId, String foodId, int quantity, String note, ActionCallback callback) {
-        // Get or create cart
-        getOrCreateCart(userId, new DataCallback<String>() {
+    public void addToCart(String userId, Food food, int quantity, String note, ActionCallback callback) {
+        // Price and availability come from the menu the user is looking at; checkout re-validates them
+        if (!food.isAvailable()) {
+            callback.onError("Item is currently out of stock");
+            return;
+        }
+
+        // Resolve the user's cart
+        resolveCart(userId, new DataCallback<String>() {
             @Override
             public void onSuccess(String cartId) {
-                // Check if item already exists in cart
-                firestore.collection("carts")
-                        .document(cartId)
-                        .collection("cartItems")
-                        .whereEqualTo("foodId", foodId)
-                        .get()
-                        .addOnSuccessListener(queryDocumentSnapshots -> {
-                            if (!queryDocumentSnapshots.isEmpty()) {
-                                // Update existing cart item
-                                QueryDocumentSnapshot existingItem = (QueryDocumentSnapshot) queryDocumentSnapshots.getDocuments().get(0);
-                                CartItem cartItem = existingItem.toObject(CartItem.class);
-                                int newQuantity = cartItem.getQuantity() + quantity;
-                                
-                                updateCartItem(existingItem.getId(), newQuantity, callback);
-                            } else {
-                                // Get food price first
-                                foodRepository.getFoodById(foodId, new FoodRepository.DataCallback<Food>() {
-                                    @Override
-                                    public void onSuccess(Food food) {
-                                        // Check if food is available
-                                        if (!food.isAvailable()) {
-                                            callback.onError("Item is currently out of stock");
-                                            return;
-                                        }
-                                        
-                                        // Create new cart item
-                                        Map<String, Object> cartItemData = new HashMap<>();
-                                        cartItemData.put("foodId", foodId);
-                                        cartItemData.put("quantity", quantity);
-                                        cartItemData.put("price", food.getPrice());
-                                        cartItemData.put("note", note);
-                                        
-                                        firestore.collection("carts")
-                                                .document(cartId)
-                                                .collection("cartItems")
-                                                .add(cartItemData)
-                                                .addOnSuccessListener(documentReference -> {
-                                                    // Update cart updatedAt timestamp
-                                                    updateCartTimestamp(cartId);
-                                                    callback.onSuccess();
-                                                })
-                                                .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                                    }
+                // Lines are keyed by foodId, so adding is one merge write whether or not the line exists
+                Map<String, Object> cartItemData = new HashMap<>();
+                cartItemData.put("foodId", food.getFoodId());
+                cartItemData.put("price", food.getPrice());
+                cartItemData.put("quantity", FieldValue.increment(quantity));
+                if (note != null && !note.isEmpty()) {
+                    cartItemData.put("note", note);
+                }
 
-                                    @Override
-                                    public void onError(String message) {
-                                        callback.onError(message);
-                                    }
-                                });
-                            }
-                        })
+                WriteBatch batch = firestore.batch();
+                batch.set(cartItemRef(cartId, food.getFoodId()), cartItemData, SetOptions.merge());
+                batch.set(cartRef(cartId), cartTimestamp(cartId), SetOptions.merge());
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> callback.onSuccess())
                         .addOnFailureListener(e -> callback.onError(e.getMessage()));
             }
 
@@ -152,73 +131,34 @@ public class CartRepositoryImpl implements CartRepository {
     }
 
     @Override
-    public void updateCartItem(String cartItemId, int quantity, ActionCallback callback) {
-        // Find the cart item by searching all carts
-        firestore.collectionGroup("cartItems")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    boolean found = false;
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        if (document.getId().equals(cartItemId)) {
-                            found = true;
-                            DocumentReference cartItemRef = document.getReference();
-                            
-                            cartItemRef.update("quantity", quantity)
-                                    .addOnSuccessListener(aVoid -> {
-                                        // Update cart timestamp
-                                        String cartId = cartItemRef.getParent().getParent().getId();
-                                        updateCartTimestamp(cartId);
-                                        callback.onSuccess();
-                                    })
-                                    .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                            break;
-                        }
-                    }
-                    
-                    if (!found) {
-                        callback.onError("Cart item not found");
-                    }
+    public void updateCartItem(String cartId, String cartItemId, int quantity, ActionCallback callback) {
+        cartItemRef(cartId, cartItemId)
+                .update("quantity", quantity)
+                .addOnSuccessListener(aVoid -> {
+                    // Update cart timestamp
+                    updateCartTimestamp(cartId);
+                    callback.onSuccess();
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
-    public void removeCartItem(String cartItemId, ActionCallback callback) {
-        // Find and delete the cart item
-        firestore.collectionGroup("cartItems")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    boolean found = false;
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        if (document.getId().equals(cartItemId)) {
-                            found = true;
-                            String cartId = document.getReference().getParent().getParent().getId();
-                            
-                            document.getReference().delete()
-                                    .addOnSuccessListener(aVoid -> {
-                                        updateCartTimestamp(cartId);
-                                        callback.onSuccess();
-                                    })
-                                    .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                            break;
-                        }
-                    }
-                    
-                    if (!found) {
-                        callback.onError("Cart item not found");
-                    }
+    public void removeCartItem(String cartId, String cartItemId, ActionCallback callback) {
+        cartItemRef(cartId, cartItemId)
+                .delete()
+                .addOnSuccessListener(aVoid -> {
+                    updateCartTimestamp(cartId);
+                    callback.onSuccess();
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
     public void clearCart(String userId, ActionCallback callback) {
-        getOrCreateCart(userId, new DataCallback<String>() {
+        resolveCart(userId, new DataCallback<String>() {
             @Override
             public void onSuccess(String cartId) {
-                firestore.collection("carts")
-                        .document(cartId)
-                        .collection("cartItems")
+                cartRef(cartId).collection("cartItems")
                         .get()
                         .addOnSuccessListener(queryDocumentSnapshots -> {
                             if (queryDocumentSnapshots.isEmpty()) {
@@ -270,39 +210,128 @@ public class CartRepositoryImpl implements CartRepository {
         });
     }
 
-    // Helper method to get or create cart for user
-    private void getOrCreateCart(String userId, DataCallback<String> callback) {
+    // Carts are keyed by user id (carts/{userId}) and their lines by foodId, so there is nothing
+    // to look up before a cart operation. The first call per user and process moves anything
+    // stored under the old random-id scheme into that layout.
+    private void resolveCart(String userId, DataCallback<String> callback) {
+        if (migratedUsers.getBoolean(userId, false)) {
+            callback.onSuccess(userId);
+            return;
+        }
+
         firestore.collection("carts")
                 .whereEqualTo("userId", userId)
-                .limit(1)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Cart exists
-                        String cartId = queryDocumentSnapshots.getDocuments().get(0).getId();
-                        callback.onSuccess(cartId);
-                    } else {
-                        // Create new cart
-                        Cart cart = new Cart();
-                        cart.setUserId(userId);
-                        cart.setCreatedAt(System.currentTimeMillis());
-                        cart.setUpdatedAt(System.currentTimeMillis());
-                        
-                        firestore.collection("carts")
-                                .add(cart)
-                                .addOnSuccessListener(documentReference -> {
-                                    callback.onSuccess(documentReference.getId());
-                                })
-                                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+                    // carts/{userId} has a userId field too. When it is the only match there is
+                    // nothing to migrate: its lines are only ever written in place by this class.
+                    List<DocumentSnapshot> carts = queryDocumentSnapshots.getDocuments();
+                    if (carts.isEmpty() || (carts.size() == 1 && carts.get(0).getId().equals(userId))) {
+                        markMigrated(userId);
+                        callback.onSuccess(userId);
+                        return;
                     }
+                    migrateLegacyCarts(userId, carts, callback);
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
-    // Helper method to update cart timestamp
+    private void markMigrated(String userId) {
+        migratedUsers.edit().putBoolean(userId, true).apply();
+    }
+
+    private void migrateLegacyCarts(String userId, List<DocumentSnapshot> carts, DataCallback<String> callback) {
+        List<Task<QuerySnapshot>> itemReads = new ArrayList<>();
+        List<DocumentSnapshot> legacyCarts = new ArrayList<>();
+        for (DocumentSnapshot cart : carts) {
+            itemReads.add(cart.getReference().collection("cartItems").get());
+            if (!cart.getId().equals(userId)) {
+                legacyCarts.add(cart);
+            }
+        }
+
+        Tasks.whenAllSuccess(itemReads)
+                .addOnSuccessListener(results -> {
+                    // Merge every line into one per food; anything not already at
+                    // carts/{userId}/cartItems/{foodId} gets rewritten there
+                    Map<String, Map<String, Object>> lines = new HashMap<>();
+                    List<DocumentReference> staleItems = new ArrayList<>();
+                    for (Object result : results) {
+                        for (DocumentSnapshot item : ((QuerySnapshot) result).getDocuments()) {
+                            String foodId = item.getString("foodId");
+                            if (foodId == null || item.getData() == null) continue;
+
+                            Map<String, Object> line = lines.get(foodId);
+                            if (line == null) {
+                                lines.put(foodId, new HashMap<>(item.getData()));
+                            } else {
+                                line.put("quantity", quantityOf(line) + quantityOf(item.getData()));
+                            }
+
+                            boolean inPlace = item.getId().equals(foodId)
+                                    && item.getReference().getParent().getParent().getId().equals(userId);
+                            if (!inPlace) {
+                                staleItems.add(item.getReference());
+                            }
+                        }
+                    }
+
+                    if (staleItems.isEmpty() && legacyCarts.isEmpty()) {
+                        markMigrated(userId);
+                        callback.onSuccess(userId);
+                        return;
+                    }
+
+                    WriteBatch batch = firestore.batch();
+                    Map<String, Object> cartData = cartTimestamp(userId);
+                    if (!legacyCarts.isEmpty()) {
+                        cartData.put("createdAt", legacyCarts.get(0).getLong("createdAt"));
+                    }
+                    batch.set(cartRef(userId), cartData, SetOptions.merge());
+
+                    for (Map.Entry<String, Map<String, Object>> line : lines.entrySet()) {
+                        batch.set(cartItemRef(userId, line.getKey()), line.getValue());
+                    }
+                    for (DocumentReference staleItem : staleItems) {
+                        batch.delete(staleItem);
+                    }
+                    for (DocumentSnapshot legacyCart : legacyCarts) {
+                        batch.delete(legacyCart.getReference());
+                    }
+
+                    batch.commit()
+                            .addOnSuccessListener(aVoid -> {
+                                markMigrated(userId);
+                                callback.onSuccess(userId);
+                            })
+                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private static long quantityOf(Map<String, Object> line) {
+        Object quantity = line.get("quantity");
+        return quantity instanceof Number ? ((Number) quantity).longValue() : 0;
+    }
+
+    private DocumentReference cartRef(String userId) {
+        return firestore.collection("carts").document(userId);
+    }
+
+    private DocumentReference cartItemRef(String cartId, String cartItemId) {
+        return cartRef(cartId).collection("cartItems")
+                .document(cartItemId);
+    }
+
+    // Helper method to update cart timestamp; the merge write also creates the cart on first use
     private void updateCartTimestamp(String cartId) {
-        firestore.collection("carts")
-                .document(cartId)
-                .update("updatedAt", System.currentTimeMillis());
+        cartRef(cartId).set(cartTimestamp(cartId), SetOptions.merge());
+    }
+
+    private Map<String, Object> cartTimestamp(String cartId) {
+        Map<String, Object> cartData = new HashMap<>();
+        cartData.put("userId", cartId);
+        cartData.put("updatedAt", System.currentTimeMillis());
+        return cartData;
     }
 }
@@ -0,0 +1,167 @@
+package com.deligo.app.repositories;
+
+import com.deligo.app.models.Food;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves foods by id for every repository that hydrates order lines, cart items or sales rows.
+ * Ids are fetched with whereIn queries of up to 30 ids, recently loaded foods are served from
+ * memory, and an id that is already being fetched is awaited instead of requested again.
+ * Shared process-wide; called from the main thread like the rest of the Firestore callbacks.
+ */
+final class FoodBatchLoader {
+    // Firestore's limit for the number of values in a whereIn clause
+    static final int MAX_IN_VALUES = 30;
+    static final long MAX_AGE_MS = 5 * 60 * 1000L;
+
+    private static FoodBatchLoader instance;
+
+    private interface Waiter {
+        // error is set when the fetch covering foodId failed
+        void onLoaded(String foodId, Food food, String error);
+    }
+
+    private static final class CachedFood {
+        final Food food;
+        final long loadedAt;
+
+        CachedFood(Food food, long loadedAt) {
+            this.food = food;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final FirebaseFirestore firestore;
+    private final Map<String, CachedFood> cache = new HashMap<>();
+    private final Map<String, List<Waiter>> inFlight = new HashMap<>();
+
+    private FoodBatchLoader(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    static synchronized FoodBatchLoader getInstance() {
+        if (instance == null) {
+            instance = new FoodBatchLoader(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Load the given foods, reusing cached copies younger than maxAgeMs (0 always goes to the server).
+     * Ids that don't exist are absent from the result; if any fetch fails the whole load fails.
+     * The foods handed out are copies, so callers may change them without touching the cache.
+     */
+    void load(Collection<String> foodIds, long maxAgeMs, FoodRepository.DataCallback<Map<String, Food>> callback) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String foodId : foodIds) {
+            if (foodId != null && !foodId.isEmpty()) {
+                wanted.add(foodId);
+            }
+        }
+
+        Map<String, Food> result = new HashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        List<String> toAwait = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (String foodId : wanted) {
+            CachedFood cached = cache.get(foodId);
+            if (cached != null && now - cached.loadedAt < maxAgeMs) {
+                result.put(foodId, new Food(cached.food));
+            } else if (inFlight.containsKey(foodId)) {
+                toAwait.add(foodId);
+            } else {
+                toFetch.add(foodId);
+            }
+        }
+
+        int[] pending = {toFetch.size() + toAwait.size()};
+        if (pending[0] == 0) {
+            callback.onSuccess(result);
+            return;
+        }
+
+        String[] error = {null};
+        Waiter waiter = (foodId, food, failure) -> {
+            if (failure != null) {
+                error[0] = failure;
+            } else if (food != null) {
+                result.put(foodId, new Food(food));
+            }
+            pending[0]--;
+            if (pending[0] > 0) return;
+            if (error[0] != null) {
+                callback.onError(error[0]);
+            } else {
+                callback.onSuccess(result);
+            }
+        };
+
+        for (String foodId : toAwait) {
+            inFlight.get(foodId).add(waiter);
+        }
+        for (String foodId : toFetch) {
+            List<Waiter> waiters = new ArrayList<>();
+            waiters.add(waiter);
+            inFlight.put(foodId, waiters);
+        }
+
+        for (int i = 0; i < toFetch.size(); i += MAX_IN_VALUES) {
+            fetchChunk(new ArrayList<>(toFetch.subList(i, Math.min(i + MAX_IN_VALUES, toFetch.size()))));
+        }
+    }
+
+    private void fetchChunk(List<String> chunk) {
+        firestore.collection("foods")
+                .whereIn(FieldPath.documentId(), chunk)
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    Map<String, Food> loaded = new HashMap<>();
+                    long loadedAt = System.currentTimeMillis();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        Food food = document.toObject(Food.class);
+                        food.setFoodId(document.getId());
+                        cache.put(document.getId(), new CachedFood(food, loadedAt));
+                        loaded.put(document.getId(), food);
+                    }
+                    for (String foodId : chunk) {
+                        complete(foodId, loaded.get(foodId), null);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    String message = e.getMessage() != null ? e.getMessage() : "Failed to load foods";
+                    for (String foodId : chunk) {
+                        complete(foodId, null, message);
+                    }
+                });
+    }
+
+    private void complete(String foodId, Food food, String error) {
+        List<Waiter> waiters = inFlight.remove(foodId);
+        if (waiters == null) return;
+        for (Waiter waiter : waiters) {
+            waiter.onLoaded(foodId, food, error);
+        }
+    }
+
+    // Remember a food that was read some other way (detail screen, menu list)
+    void put(Food food) {
+        if (food != null && food.getFoodId() != null) {
+            cache.put(food.getFoodId(), new CachedFood(new Food(food), System.currentTimeMillis()));
+        }
+    }
+
+    void invalidate(String foodId) {
+        cache.remove(foodId);
+    }
+}
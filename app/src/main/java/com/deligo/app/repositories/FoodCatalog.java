@@ -0,0 +1,264 @@
+package com.deligo.app.repositories;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.deligo.app.models.Food;
+import com.google.firebase.FirebaseApp;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local copy of the menu, kept in memory and in a file so the menu opens without a network read.
+ * After the first full download only foods whose updatedAt is at or after the newest one seen
+ * are fetched. A full download still runs once a day, which picks up changes that don't stamp
+ * updatedAt (console edits, hard deletes).
+ * Shared process-wide; called from the main thread like the Firestore callbacks.
+ */
+public final class FoodCatalog {
+    private static final String TAG = "FoodCatalog";
+    private static final String FILE_NAME = "food_catalog.bin";
+    // Minimum time between two syncs, so returning to the menu doesn't query again
+    private static final long MIN_SYNC_INTERVAL_MS = 30 * 1000L;
+    private static final long FULL_SYNC_INTERVAL_MS = 24 * 60 * 60 * 1000L;
+
+    private static FoodCatalog instance;
+
+    /**
+     * Called with the local foods first (when there are any) and again after a sync that changed something.
+     */
+    public interface Listener {
+        void onFoodsChanged(List<Food> foods);
+        void onError(String message);
+    }
+
+    // What is written to disk
+    private static final class Snapshot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final ArrayList<Food> foods;
+        final Date watermark;
+        final long fullSyncAt;
+
+        Snapshot(ArrayList<Food> foods, Date watermark, long fullSyncAt) {
+            this.foods = foods;
+            this.watermark = watermark;
+            this.fullSyncAt = fullSyncAt;
+        }
+    }
+
+    private final FoodRepository foodRepository;
+    private final File file;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Map<String, Food> foods = new LinkedHashMap<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private Date watermark;
+    private long fullSyncAt;
+    private long lastSyncAt;
+    private boolean restored;
+    private boolean restoring;
+    private boolean syncing;
+
+    private FoodCatalog(FoodRepository foodRepository, File file) {
+        this.foodRepository = foodRepository;
+        this.file = file;
+    }
+
+    public static synchronized FoodCatalog getInstance() {
+        if (instance == null) {
+            Context context = FirebaseApp.getInstance().getApplicationContext();
+            instance = new FoodCatalog(new FoodRepositoryImpl(), new File(context.getFilesDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (restored) {
+            listener.onFoodsChanged(getFoods());
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public List<Food> getFoods() {
+        return Collections.unmodifiableList(new ArrayList<>(foods.values()));
+    }
+
+    /**
+     * Bring the catalog up to date. Restores the file on first use, then queries the server
+     * unless a sync finished less than MIN_SYNC_INTERVAL_MS ago (force skips that check).
+     * Returns whether listeners will hear back, i.e. a restore or sync is running.
+     */
+    public boolean sync(boolean force) {
+        if (!restored) {
+            restore();
+            return true;
+        }
+        if (syncing) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (!force && now - lastSyncAt < MIN_SYNC_INTERVAL_MS) {
+            return false;
+        }
+
+        syncing = true;
+        if (watermark == null || now - fullSyncAt > FULL_SYNC_INTERVAL_MS) {
+            fullSync(now);
+        } else {
+            deltaSync();
+        }
+        return true;
+    }
+
+    private void fullSync(long startedAt) {
+        foodRepository.getAvailableFoods(new FoodRepository.DataCallback<List<Food>>() {
+            @Override
+            public void onSuccess(List<Food> data) {
+                foods.clear();
+                watermark = null;
+                merge(data);
+                fullSyncAt = startedAt;
+                finishSync(true);
+            }
+
+            @Override
+            public void onError(String message) {
+                failSync(message);
+            }
+        });
+    }
+
+    private void deltaSync() {
+        foodRepository.getFoodsUpdatedSince(watermark, new FoodRepository.DataCallback<List<Food>>() {
+            @Override
+            public void onSuccess(List<Food> data) {
+                Log.d(TAG, "deltaSync: " + data.size() + " foods changed");
+                boolean changed = merge(data);
+                finishSync(changed);
+            }
+
+            @Override
+            public void onError(String message) {
+                failSync(message);
+            }
+        });
+    }
+
+    // Returns whether any food differs from what was already held
+    private boolean merge(List<Food> changed) {
+        boolean different = false;
+        for (Food food : changed) {
+            Food previous = foods.put(food.getFoodId(), food);
+            Date updatedAt = food.getUpdatedAt();
+            if (previous == null || previous.getUpdatedAt() == null || !previous.getUpdatedAt().equals(updatedAt)) {
+                different = true;
+            }
+            if (updatedAt != null && (watermark == null || updatedAt.after(watermark))) {
+                watermark = updatedAt;
+            }
+        }
+        return different;
+    }
+
+    private void finishSync(boolean changed) {
+        syncing = false;
+        lastSyncAt = System.currentTimeMillis();
+        if (changed) {
+            save();
+            notifyChanged();
+        }
+    }
+
+    private void failSync(String message) {
+        syncing = false;
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onError(message);
+        }
+    }
+
+    private void notifyChanged() {
+        List<Food> snapshot = getFoods();
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onFoodsChanged(snapshot);
+        }
+    }
+
+    private void restore() {
+        if (restoring) {
+            return;
+        }
+        restoring = true;
+        diskExecutor.execute(() -> {
+            Snapshot snapshot = read();
+            mainHandler.post(() -> {
+                restoring = false;
+                restored = true;
+                if (snapshot != null) {
+                    for (Food food : snapshot.foods) {
+                        foods.put(food.getFoodId(), food);
+                    }
+                    watermark = snapshot.watermark;
+                    fullSyncAt = snapshot.fullSyncAt;
+                    if (!foods.isEmpty()) {
+                        notifyChanged();
+                    }
+                }
+                sync(true);
+            });
+        });
+    }
+
+    private Snapshot read() {
+        if (!file.exists()) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+            return (Snapshot) in.readObject();
+        } catch (Exception e) {
+            // Unreadable or written by an older Food class: start over with a full sync
+            Log.w(TAG, "read: discarding catalog file", e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void save() {
+        Snapshot snapshot = new Snapshot(new ArrayList<>(foods.values()), watermark, fullSyncAt);
+        diskExecutor.execute(() -> {
+            File temp = new File(file.getPath() + ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(temp))) {
+                out.writeObject(snapshot);
+            } catch (Exception e) {
+                Log.w(TAG, "save: failed to write catalog file", e);
+                temp.delete();
+                return;
+            }
+            if (!temp.renameTo(file)) {
+                Log.w(TAG, "save: failed to replace catalog file");
+            }
+        });
+    }
+}
@@ -1,14 +1,22 @@
 package com.deligo.app.repositories;
 
 import com.deligo.app.models.Food;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public interface FoodRepository {
     void getAllFoods(DataCallback<List<Food>> callback);
     void getFoodsByCategory(String categoryId, DataCallback<List<Food>> callback);
-    void searchFoodsByName(String query, DataCallback<List<Food>> callback);
     void getFoodById(String foodId, DataCallback<Food> callback);
     void getAvailableFoods(DataCallback<List<Food>> callback);
+    // Batched lookup keyed by foodId; missing foods are left out of the map
+    void getFoodsByIds(Collection<String> foodIds, DataCallback<Map<String, Food>> callback);
+    // Same lookup, always read from the server (checkout needs current price and availability)
+    void refreshFoodsByIds(Collection<String> foodIds, DataCallback<Map<String, Food>> callback);
+    // Foods whose updatedAt is at or after the given time (delta sync for FoodCatalog)
+    void getFoodsUpdatedSince(Date since, DataCallback<List<Food>> callback);
     
     interface DataCallback<T> {
         void onSuccess(T data);
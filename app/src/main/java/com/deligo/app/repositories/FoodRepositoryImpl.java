@@ -7,14 +7,19 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public class FoodRepositoryImpl implements FoodRepository {
     private static final String TAG = "FoodRepositoryImpl";
     private final FirebaseFirestore firestore;
+    private final FoodBatchLoader foodLoader;
 
     public FoodRepositoryImpl() {
         this.firestore = FirebaseFirestore.getInstance();
+        this.foodLoader = FoodBatchLoader.getInstance();
     }
 
     @Override
@@ -50,25 +55,6 @@ public class FoodRepositoryImpl implements FoodRepository {
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
-    @Override
-    public void searchFoodsByName(String query, DataCallback<List<Food>> callback) {
-        firestore.collection("foods")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Food> foods = new ArrayList<>();
-                    String lowerQuery = query.toLowerCase();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Food food = document.toObject(Food.class);
-                        food.setFoodId(document.getId());
-                        if (food.getName().toLowerCase().contains(lowerQuery)) {
-                            foods.add(food);
-                        }
-                    }
-                    callback.onSuccess(foods);
-                })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
-    }
-
     @Override
     public void getFoodById(String foodId, DataCallback<Food> callback) {
         firestore.collection("foods")
@@ -79,6 +65,7 @@ public class FoodRepositoryImpl implements FoodRepository {
                         Food food = documentSnapshot.toObject(Food.class);
                         if (food != null) {
                             food.setFoodId(documentSnapshot.getId());
+                            foodLoader.put(food);
                         }
                         callback.onSuccess(food);
                     } else {
@@ -101,6 +88,7 @@ public class FoodRepositoryImpl implements FoodRepository {
                         Food food = document.toObject(Food.class);
                         food.setFoodId(document.getId());
                         foods.add(food);
+                        foodLoader.put(food);
                         Log.d(TAG, "getAvailableFoods: Food loaded - " + food.getName() + " ($" + food.getPrice() + "), isAvailable=" + food.isAvailable());
                     }
                     Log.d(TAG, "getAvailableFoods: Total foods loaded: " + foods.size());
@@ -111,4 +99,33 @@ public class FoodRepositoryImpl implements FoodRepository {
                     callback.onError(e.getMessage());
                 });
     }
+
+    @Override
+    public void getFoodsByIds(Collection<String> foodIds, DataCallback<Map<String, Food>> callback) {
+        foodLoader.load(foodIds, FoodBatchLoader.MAX_AGE_MS, callback);
+    }
+
+    @Override
+    public void refreshFoodsByIds(Collection<String> foodIds, DataCallback<Map<String, Food>> callback) {
+        foodLoader.load(foodIds, 0, callback);
+    }
+
+    @Override
+    public void getFoodsUpdatedSince(Date since, DataCallback<List<Food>> callback) {
+        // Inclusive bound: a write stamped in the same millisecond as the watermark is not missed
+        firestore.collection("foods")
+                .whereGreaterThanOrEqualTo("updatedAt", since)
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<Food> foods = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        Food food = document.toObject(Food.class);
+                        food.setFoodId(document.getId());
+                        foods.add(food);
+                        foodLoader.put(food);
+                    }
+                    callback.onSuccess(foods);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
 }
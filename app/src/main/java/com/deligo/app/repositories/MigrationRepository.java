@@ -0,0 +1,20 @@
+package com.deligo.app.repositories;
+
+import java.util.Set;
+
+public interface MigrationRepository {
+    // Keys of the one-off migrations that have completed, on any device (meta/migrations)
+    void getCompletedMigrations(DataCallback<Set<String>> callback);
+
+    void markMigrationDone(String key, ActionCallback callback);
+
+    interface DataCallback<T> {
+        void onSuccess(T data);
+        void onError(String message);
+    }
+
+    interface ActionCallback {
+        void onSuccess();
+        void onError(String message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.deligo.app.repositories;
+
+import com.deligo.app.utils.Constants;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class MigrationRepositoryImpl implements MigrationRepository {
+    private final FirebaseFirestore firestore;
+
+    public MigrationRepositoryImpl() {
+        this.firestore = FirebaseFirestore.getInstance();
+    }
+
+    @Override
+    public void getCompletedMigrations(DataCallback<Set<String>> callback) {
+        migrationsRef()
+                .get()
+                .addOnSuccessListener(documentSnapshot -> {
+                    Set<String> completed = new HashSet<>();
+                    Map<String, Object> data = documentSnapshot.getData();
+                    if (data != null) {
+                        for (Map.Entry<String, Object> entry : data.entrySet()) {
+                            if (Boolean.TRUE.equals(entry.getValue())) {
+                                completed.add(entry.getKey());
+                            }
+                        }
+                    }
+                    callback.onSuccess(completed);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    @Override
+    public void markMigrationDone(String key, ActionCallback callback) {
+        Map<String, Object> migrations = new HashMap<>();
+        migrations.put(key, true);
+        migrationsRef()
+                .set(migrations, SetOptions.merge())
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private DocumentReference migrationsRef() {
+        return firestore.collection(Constants.COLLECTION_META).document(Constants.DOC_MIGRATIONS);
+    }
+}
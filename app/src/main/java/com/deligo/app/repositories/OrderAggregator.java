@@ -0,0 +1,228 @@
+package com.deligo.app.repositories;
+
+import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.models.Order;
+import com.deligo.app.models.OrderItem;
+import com.deligo.app.utils.Constants;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies the side effects of order writes to the denormalized aggregates
+ * (daily sales rollups, per-food sold counts and per-user purchased foods). All writes go through the caller's WriteBatch or
+ * Transaction so an order and its aggregates always change together.
+ */
+final class OrderAggregator {
+
+    /**
+     * Merge-write sink, implemented by both WriteBatch and Transaction.
+     */
+    interface Writer {
+        void merge(DocumentReference ref, Map<String, Object> data);
+    }
+
+    static Writer of(WriteBatch batch) {
+        return (ref, data) -> batch.set(ref, data, SetOptions.merge());
+    }
+
+    static Writer of(Transaction transaction) {
+        return (ref, data) -> transaction.set(ref, data, SetOptions.merge());
+    }
+
+    private final FirebaseFirestore firestore;
+
+    OrderAggregator(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    /**
+     * Count a newly created order in the rollup of the day it was placed.
+     */
+    void onOrderCreated(Writer writer, Order order) {
+        count(writer, order, order.getStatus());
+    }
+
+    /**
+     * Move an order between status buckets. Revenue, item quantities and sold counts only
+     * follow completed orders, so they change when the order enters or leaves COMPLETED.
+     * An order the rollups never counted (placed before they existed and not backfilled yet)
+     * is counted in its new status instead, so nothing is decremented below what was added.
+     */
+    void onStatusChanged(Writer writer, Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (!order.isAggregated()) {
+            count(writer, order, to);
+            return;
+        }
+
+        Map<String, Object> rollup = newRollup(order.getCreatedAt());
+        Map<String, Object> statusCounts = new HashMap<>();
+        if (from != null) {
+            statusCounts.put(from.name(), FieldValue.increment(-1));
+        }
+        if (to != null) {
+            statusCounts.put(to.name(), FieldValue.increment(1));
+        }
+        rollup.put("statusCounts", statusCounts);
+
+        if (to == OrderStatus.COMPLETED) {
+            applyCompletion(rollup, order, 1);
+            applySoldCounts(writer, order, 1);
+            applyPurchases(writer, order, 1);
+        } else if (from == OrderStatus.COMPLETED) {
+            applyCompletion(rollup, order, -1);
+            applySoldCounts(writer, order, -1);
+            applyPurchases(writer, order, -1);
+        }
+        writer.merge(rollupRef(order.getCreatedAt()), rollup);
+    }
+
+    // Add the order to its day in the given status. Status writes mark the order as aggregated,
+    // so an order is only ever counted this way once.
+    private void count(Writer writer, Order order, OrderStatus status) {
+        Map<String, Object> rollup = newRollup(order.getCreatedAt());
+        rollup.put("orderCount", FieldValue.increment(1));
+
+        Map<String, Object> statusCounts = new HashMap<>();
+        if (status != null) {
+            statusCounts.put(status.name(), FieldValue.increment(1));
+        }
+        rollup.put("statusCounts", statusCounts);
+
+        if (status == OrderStatus.COMPLETED) {
+            applyCompletion(rollup, order, 1);
+            applySoldCounts(writer, order, 1);
+            applyPurchases(writer, order, 1);
+        }
+        writer.merge(rollupRef(order.getCreatedAt()), rollup);
+    }
+
+    private void applyCompletion(Map<String, Object> rollup, Order order, int sign) {
+        rollup.put("revenue", FieldValue.increment(sign * order.getTotalAmount()));
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> quantities = sumQuantities(order.getItems());
+        Map<String, Object> itemQuantities = new HashMap<>();
+        for (Map.Entry<String, Long> entry : quantities.entrySet()) {
+            itemQuantities.put(entry.getKey(), FieldValue.increment(sign * entry.getValue()));
+        }
+        rollup.put("itemQuantities", itemQuantities);
+    }
+
+    // Keep foods/{foodId}.soldCount in step with completed orders
+    private void applySoldCounts(Writer writer, Order order, int sign) {
+        if (order.getItems() == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> entry : sumQuantities(order.getItems()).entrySet()) {
+            Map<String, Object> food = new HashMap<>();
+            food.put("soldCount", FieldValue.increment(sign * entry.getValue()));
+            food.put("updatedAt", FieldValue.serverTimestamp());
+            writer.merge(firestore.collection(Constants.COLLECTION_FOODS).document(entry.getKey()), food);
+        }
+    }
+
+    // users/{customerId}/purchases/{foodId}: how many completed orders contained the food.
+    // Review eligibility reads this single document.
+    private void applyPurchases(Writer writer, Order order, int sign) {
+        if (order.getItems() == null || order.getCustomerId() == null) {
+            return;
+        }
+        for (String foodId : sumQuantities(order.getItems()).keySet()) {
+            Map<String, Object> purchase = new HashMap<>();
+            purchase.put("foodId", foodId);
+            purchase.put("count", FieldValue.increment(sign));
+            if (sign > 0) {
+                purchase.put("lastPurchasedAt", order.getCreatedAt());
+            }
+            writer.merge(purchaseRef(order.getCustomerId(), foodId), purchase);
+        }
+    }
+
+    private DocumentReference purchaseRef(String customerId, String foodId) {
+        return firestore.collection(Constants.COLLECTION_USERS).document(customerId)
+                .collection(Constants.COLLECTION_PURCHASES).document(foodId);
+    }
+
+    private Map<String, Object> newRollup(long createdAt) {
+        Map<String, Object> rollup = new HashMap<>();
+        rollup.put("dateKey", dayKey(createdAt));
+        rollup.put("dayStart", dayStart(createdAt));
+        return rollup;
+    }
+
+    private DocumentReference rollupRef(long createdAt) {
+        return firestore.collection(Constants.COLLECTION_DAILY_STATS).document(dayKey(createdAt));
+    }
+
+    /**
+     * Whether a transition changes anything that depends on the order's line items.
+     */
+    static boolean needsItems(OrderStatus from, OrderStatus to) {
+        return from != to && (from == OrderStatus.COMPLETED || to == OrderStatus.COMPLETED);
+    }
+
+    /**
+     * Number of writes onStatusChanged adds for this transition, for sizing batches.
+     */
+    static int writeCount(Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) {
+            return 0;
+        }
+        int writes = 1; // daily rollup
+        if (needsItems(from, to) && order.getItems() != null) {
+            // soldCount and purchases entry per food
+            writes += 2 * sumQuantities(order.getItems()).size();
+        }
+        return writes;
+    }
+
+    static Map<String, Long> sumQuantities(List<OrderItem> lines) {
+        Map<String, Long> quantities = new HashMap<>();
+        for (OrderItem line : lines) {
+            if (line.getFoodId() == null) continue;
+            long current = quantities.getOrDefault(line.getFoodId(), 0L);
+            quantities.put(line.getFoodId(), current + line.getQuantity());
+        }
+        return quantities;
+    }
+
+    // Day helpers (device time zone, same as the dashboard's date ranges)
+    static String dayKey(long timestamp) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        return dateFormat.format(new Date(timestamp));
+    }
+
+    static long dayStart(long timestamp) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    static long nextDayStart(long timestamp) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(dayStart(timestamp));
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        return calendar.getTimeInMillis();
+    }
+}
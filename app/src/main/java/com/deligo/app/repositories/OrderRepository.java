@@ -1,18 +1,27 @@
 package com.deligo.app.repositories;
 
+import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.models.BulkStatusResult;
 import com.deligo.app.models.CartItem;
 import com.deligo.app.models.Order;
 import com.deligo.app.models.OrderDetail;
+import com.deligo.app.models.OrderPage;
 
 import java.util.List;
 
 public interface OrderRepository {
-    void createOrder(String customerId, String phoneNumber, String deliveryAddress, String paymentMethod,
-                     String note, List<CartItem> cartItems, DataCallback<Order> callback);
+    // Client-side order id; generate once per checkout and reuse it when retrying
+    String newOrderId();
 
-    void getOrdersByCustomer(String customerId, DataCallback<List<Order>> callback);
+    // Creating an order whose id already exists returns the existing order instead of a duplicate.
+    // The check and the write are one transaction, so this needs a connection.
+    void createOrder(String orderId, String customerId, String phoneNumber, String deliveryAddress,
+                     String paymentMethod, String note, List<CartItem> cartItems, DataCallback<Order> callback);
 
-    void getAllOrders(DataCallback<List<Order>> callback);
+    // Paged, newest first: pass null for the first page, then the previous page's last order
+    void getOrdersByCustomer(String customerId, Order after, int pageSize, DataCallback<OrderPage> callback);
+
+    void getAllOrders(Order after, int pageSize, DataCallback<OrderPage> callback);
 
     void getOrderById(String orderId, DataCallback<Order> callback);
 
@@ -22,14 +31,37 @@ public interface OrderRepository {
 
     void updateOrderAndPaymentStatus(String orderId, String orderStatus, String paymentStatus, ActionCallback callback);
 
+    // Move one order from the status the caller last saw, in a single transaction. If the order has
+    // moved on meanwhile nothing is written and onConflict receives its current state.
+    void transitionOrderStatus(String orderId, OrderStatus expectedStatus, OrderStatus newStatus, String paymentStatus,
+                               TransitionCallback callback);
+
+    // Move many orders to one status in chunked batches; orders that can't make the move are skipped
+    void updateOrderStatuses(List<String> orderIds, OrderStatus status, String paymentStatus,
+                             DataCallback<BulkStatusResult> callback);
+
     void getOrderDetails(String orderId, DataCallback<List<OrderDetail>> callback);
 
+    void getOrderDetails(Order order, DataCallback<List<OrderDetail>> callback);
+
+    // One-off: embed the line items of orders created before they were stored on the order
+    void backfillOrderItems(ActionCallback callback);
+
+    // Give orders written before status codes existed their statusCode and statusChangedAt
+    void migrateStatusCodes(ActionCallback callback);
+
     void getPendingOrdersCount(DataCallback<Integer> callback);
 
     void listenToPendingOrders(OrderCountListener listener);
 
     void removeOrderListener();
 
+    // Live feed of the newest orders: the first callback carries the current page,
+    // later ones only the orders that were added or changed since
+    void listenToRecentOrders(int limit, OrderFeedListener listener);
+
+    void removeRecentOrdersListener();
+
     interface DataCallback<T> {
         void onSuccess(T data);
         void onError(String message);
@@ -40,7 +72,18 @@ public interface OrderRepository {
         void onError(String message);
     }
 
+    interface TransitionCallback {
+        void onSuccess(Order order);
+        void onConflict(Order currentOrder);
+        void onError(String message);
+    }
+
     interface OrderCountListener {
         void onCountChanged(int count);
     }
+
+    interface OrderFeedListener {
+        void onOrdersChanged(List<Order> changedOrders);
+        void onError(String message);
+    }
 }
@@ -1,32 +1,174 @@
 package com.deligo.app.repositories;
 
+import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.models.BulkStatusResult;
 import com.deligo.app.models.CartItem;
 import com.deligo.app.models.Food;
 import com.deligo.app.models.Order;
 import com.deligo.app.models.OrderDetail;
+import com.deligo.app.models.OrderItem;
+import com.deligo.app.models.OrderPage;
 import com.deligo.app.utils.Constants;
+import com.deligo.app.utils.OrderIdGenerator;
+import com.deligo.app.utils.TimeOrderedOrderIdGenerator;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class OrderRepositoryImpl implements OrderRepository {
+    // Firestore batches are limited to 500 writes
+    private static final int MAX_BATCH_WRITES = 500;
+    // Firestore's limit for the number of values in a whereIn clause
+    private static final int MAX_IN_VALUES = 30;
     private final FirebaseFirestore firestore;
+    private final OrderAggregator aggregator;
+    private final FoodRepository foodRepository;
+    private final OrderIdGenerator orderIdGenerator;
     private ListenerRegistration orderListener;
+    private ListenerRegistration recentOrdersListener;
 
     public OrderRepositoryImpl() {
+        this(TimeOrderedOrderIdGenerator.forInstall(FirebaseApp.getInstance().getApplicationContext()));
+    }
+
+    public OrderRepositoryImpl(OrderIdGenerator orderIdGenerator) {
         this.firestore = FirebaseFirestore.getInstance();
+        this.aggregator = new OrderAggregator(firestore);
+        this.foodRepository = new FoodRepositoryImpl();
+        this.orderIdGenerator = orderIdGenerator;
     }
 
     @Override
-    public void createOrder(String customerId, String phoneNumber, String deliveryAddress, String paymentMethod,
-                            String note, List<CartItem> cartItems, DataCallback<Order> callback) {
+    public String newOrderId() {
+        return orderIdGenerator.nextId();
+    }
+
+    @Override
+    public void createOrder(String orderId, String customerId, String phoneNumber, String deliveryAddress,
+                            String paymentMethod, String note, List<CartItem> cartItems, DataCallback<Order> callback) {
+        List<String> foodIds = new ArrayList<>();
+        for (CartItem item : cartItems) {
+            foodIds.add(item.getFoodId());
+        }
+
+        // Cart lines carry the price seen when they were added; re-check against the menu before ordering
+        foodRepository.refreshFoodsByIds(foodIds, new FoodRepository.DataCallback<Map<String, Food>>() {
+            @Override
+            public void onSuccess(Map<String, Food> foods) {
+                writeOrder(firestore.collection("orders").document(orderId), customerId, phoneNumber,
+                        deliveryAddress, paymentMethod, note, cartItems, foods, callback);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    // What the order-creating transaction found under the order id
+    private static final class OrderCreation {
+        static final int CREATED = 0;
+        static final int EXISTING = 1;
+        static final int ID_TAKEN = 2;
+
+        final int outcome;
+        final Order order;
+
+        OrderCreation(int outcome, Order order) {
+            this.outcome = outcome;
+            this.order = order;
+        }
+    }
+
+    // The order id doubles as the idempotency key. The existence check and the writes share one
+    // transaction, so a retry or a colliding id can never write the order or its rollups twice.
+    private void writeOrder(DocumentReference orderRef, String customerId, String phoneNumber, String deliveryAddress,
+                            String paymentMethod, String note, List<CartItem> cartItems, Map<String, Food> foods,
+                            DataCallback<Order> callback) {
+        firestore.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(orderRef);
+            if (snapshot.exists()) {
+                Order existing = snapshot.toObject(Order.class);
+                if (existing != null) {
+                    existing.setOrderId(snapshot.getId());
+                }
+                // Someone else's order under this id, or an earlier attempt of ours that went through
+                return new OrderCreation(customerId.equals(snapshot.getString("customerId"))
+                        ? OrderCreation.EXISTING : OrderCreation.ID_TAKEN, existing);
+            }
+
+            checkCart(cartItems, foods);
+            Order order = newOrder(orderRef.getId(), customerId, phoneNumber, deliveryAddress, paymentMethod, note, cartItems);
+
+            // Header, order details and rollups commit together, so there are no orders without lines
+            transaction.set(orderRef, order);
+            for (OrderItem item : order.getItems()) {
+                // Cart lines are one per food, so the food id is a stable detail id
+                DocumentReference detailRef = orderRef.collection("orderDetails")
+                        .document(item.getFoodId());
+                transaction.set(detailRef, new OrderDetail(detailRef.getId(), orderRef.getId(), item));
+            }
+
+            // Count the order in its daily sales rollup
+            aggregator.onOrderCreated(OrderAggregator.of(transaction), order);
+            return new OrderCreation(OrderCreation.CREATED, order);
+        })
+                .addOnSuccessListener(creation -> {
+                    if (creation.outcome == OrderCreation.ID_TAKEN) {
+                        // Start over with a fresh id
+                        writeOrder(firestore.collection("orders").document(newOrderId()), customerId, phoneNumber,
+                                deliveryAddress, paymentMethod, note, cartItems, foods, callback);
+                        return;
+                    }
+                    callback.onSuccess(creation.order);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // Every line must still be on the menu at the price the customer saw
+    private void checkCart(List<CartItem> cartItems, Map<String, Food> foods) throws FirebaseFirestoreException {
+        if (foods.isEmpty()) {
+            throw new FirebaseFirestoreException("Could not verify cart items, please try again",
+                    FirebaseFirestoreException.Code.UNAVAILABLE);
+        }
+        for (CartItem item : cartItems) {
+            Food food = foods.get(item.getFoodId());
+            if (food == null || !food.isAvailable()) {
+                String name = food != null ? food.getName() : item.getFoodId();
+                throw new FirebaseFirestoreException(name + " is currently out of stock",
+                        FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+            if (Double.compare(food.getPrice(), item.getPrice()) != 0) {
+                throw new FirebaseFirestoreException("The price of " + food.getName() + " has changed, please review your cart",
+                        FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+            item.setFood(food);
+        }
+    }
+
+    private Order newOrder(String orderId, String customerId, String phoneNumber, String deliveryAddress,
+                           String paymentMethod, String note, List<CartItem> cartItems) {
         // Calculate total amount
         double totalAmount = 0;
         for (CartItem item : cartItems) {
@@ -35,6 +177,7 @@ public class OrderRepositoryImpl implements OrderRepository {
 
         // Create order object
         Order order = new Order();
+        order.setOrderId(orderId);
         order.setCustomerId(customerId);
         order.setPhoneNumber(phoneNumber);
         order.setDeliveryAddress(deliveryAddress);
@@ -42,75 +185,48 @@ public class OrderRepositoryImpl implements OrderRepository {
         order.setNote(note);
         order.setTotalAmount(totalAmount);
         order.setPaymentStatus("Chờ thanh toán");
-        order.setOrderStatus("Chờ xác nhận");
+        order.setStatus(OrderStatus.PENDING);
         order.setCreatedAt(System.currentTimeMillis());
-
-        long timestamp = System.currentTimeMillis();
-
-        // Lấy mỗi năm (YYYY)
-        java.text.SimpleDateFormat yearFormat =
-                new java.text.SimpleDateFormat("yyyy", java.util.Locale.getDefault());
-        String yearPart = yearFormat.format(new java.util.Date(timestamp));
-        // Lấy 4 số cuối của timestamp
-        String last4 = String.format("%04d", (int) (timestamp % 10000));
-        String customOrderId = "DH" + yearPart + last4;
-
-        order.setOrderId(customOrderId);
-
-
-        // Create order in Firestore with custom ID
-        firestore.collection("orders")
-                .document(customOrderId)
-                .set(order)
-                .addOnSuccessListener(aVoid -> {
-                    // Create batch to add order details
-                    WriteBatch batch = firestore.batch();
-
-                    for (CartItem cartItem : cartItems) {
-                        OrderDetail orderDetail = new OrderDetail();
-                        orderDetail.setOrderId(customOrderId);
-                        orderDetail.setFoodId(cartItem.getFoodId());
-                        orderDetail.setQuantity(cartItem.getQuantity());
-                        orderDetail.setUnitPrice(cartItem.getPrice());
-
-                        DocumentReference detailRef = firestore.collection("orders")
-                                .document(customOrderId)
-                                .collection("orderDetails")
-                                .document();
-                        orderDetail.setOrderDetailId(detailRef.getId());
-                        batch.set(detailRef, orderDetail);
-                    }
-
-                    // Commit batch
-                    batch.commit()
-                            .addOnSuccessListener(batchVoid -> callback.onSuccess(order))
-                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
-                })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+        order.setStatusChangedAt(order.getCreatedAt());
+        order.setAggregated(true);
+
+        // Embed compact line items so an order and its lines arrive in a single read
+        List<OrderItem> items = new ArrayList<>();
+        for (CartItem cartItem : cartItems) {
+            Food food = cartItem.getFood();
+            items.add(new OrderItem(cartItem.getFoodId(),
+                    food != null ? food.getName() : null,
+                    cartItem.getPrice(),
+                    cartItem.getQuantity(),
+                    food != null ? food.getImageUrl() : null));
+        }
+        order.setItems(items);
+        return order;
     }
 
     @Override
-    public void getOrdersByCustomer(String customerId, DataCallback<List<Order>> callback) {
-        firestore.collection("orders")
-                .whereEqualTo("customerId", customerId)
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Order> orders = new ArrayList<>();
-                    queryDocumentSnapshots.forEach(document -> {
-                        Order order = document.toObject(Order.class);
-                        order.setOrderId(document.getId());
-                        orders.add(order);
-                    });
-                    callback.onSuccess(orders);
-                })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    public void getOrdersByCustomer(String customerId, Order after, int pageSize, DataCallback<OrderPage> callback) {
+        Query query = firestore.collection("orders")
+                .whereEqualTo("customerId", customerId);
+        getOrderPage(query, after, pageSize, callback);
     }
 
     @Override
-    public void getAllOrders(DataCallback<List<Order>> callback) {
-        firestore.collection("orders")
+    public void getAllOrders(Order after, int pageSize, DataCallback<OrderPage> callback) {
+        getOrderPage(firestore.collection("orders"), after, pageSize, callback);
+    }
+
+    // Newest first; the document id breaks ties between orders created in the same millisecond
+    private void getOrderPage(Query base, Order after, int pageSize, DataCallback<OrderPage> callback) {
+        Query query = base
                 .orderBy("createdAt", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+        if (after != null) {
+            query = query.startAfter(after.getCreatedAt(), after.getOrderId());
+        }
+
+        // One extra document tells whether another page exists
+        query.limit(pageSize + 1)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     List<Order> orders = new ArrayList<>();
@@ -119,7 +235,12 @@ public class OrderRepositoryImpl implements OrderRepository {
                         order.setOrderId(document.getId());
                         orders.add(order);
                     });
-                    callback.onSuccess(orders);
+
+                    boolean hasMore = orders.size() > pageSize;
+                    if (hasMore) {
+                        orders.remove(orders.size() - 1);
+                    }
+                    callback.onSuccess(new OrderPage(orders, hasMore));
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
@@ -147,17 +268,7 @@ public class OrderRepositoryImpl implements OrderRepository {
 
     @Override
     public void updateOrderStatus(String orderId, String status, ActionCallback callback) {
-        // Convert status to Vietnamese
-        String vietnameseStatus = convertStatusToVietnamese(status);
-
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("orderStatus", vietnameseStatus);
-
-        firestore.collection("orders")
-                .document(orderId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+        applyStatusChange(orderId, status, null, callback);
     }
 
     private String convertStatusToVietnamese(String status) {
@@ -165,15 +276,15 @@ public class OrderRepositoryImpl implements OrderRepository {
 
         switch (status.toLowerCase()) {
             case "pending":
-                return "Chờ xác nhận";
+                return OrderStatus.PENDING.getVietnameseName();
             case "accepted":
-                return "Đã nhận đơn";
+                return OrderStatus.ACCEPTED.getVietnameseName();
             case "preparing":
-                return "Đang chuẩn bị";
+                return OrderStatus.PREPARING.getVietnameseName();
             case "completed":
-                return "Đã hoàn thành";
+                return OrderStatus.COMPLETED.getVietnameseName();
             case "cancelled":
-                return "Bị huỷ";
+                return OrderStatus.CANCELLED.getVietnameseName();
             default:
                 return status;
         }
@@ -193,83 +304,547 @@ public class OrderRepositoryImpl implements OrderRepository {
 
     @Override
     public void updateOrderAndPaymentStatus(String orderId, String orderStatus, String paymentStatus, ActionCallback callback) {
-        // Convert statuses to Vietnamese
-        String vietnameseOrderStatus = convertStatusToVietnamese(orderStatus);
+        // Payment status is still free text; convert the English keys to Vietnamese
         String vietnamesePaymentStatus = convertStatusToVietnamese(paymentStatus);
 
+        applyStatusChange(orderId, orderStatus, vietnamesePaymentStatus, callback);
+    }
+
+    @Override
+    public void updateOrderStatuses(List<String> orderIds, OrderStatus status, String paymentStatus,
+                                    DataCallback<BulkStatusResult> callback) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<Order> updated = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        if (ids.isEmpty()) {
+            callback.onSuccess(new BulkStatusResult(updated, skipped, failed));
+            return;
+        }
+
+        // Read the current state of every order: one whereIn query per 30 ids, all in parallel
+        List<Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IN_VALUES) {
+            reads.add(firestore.collection("orders")
+                    .whereIn(FieldPath.documentId(), ids.subList(i, Math.min(i + MAX_IN_VALUES, ids.size())))
+                    .get());
+        }
+
+        Tasks.whenAllSuccess(reads)
+                .addOnSuccessListener(results -> {
+                    Map<String, Order> current = new HashMap<>();
+                    for (Object result : results) {
+                        for (QueryDocumentSnapshot document : (QuerySnapshot) result) {
+                            Order order = document.toObject(Order.class);
+                            order.setOrderId(document.getId());
+                            current.put(document.getId(), order);
+                        }
+                    }
+
+                    // Precondition: only orders whose current status allows the move are written
+                    List<Order> eligible = new ArrayList<>();
+                    List<Order> legacy = new ArrayList<>();
+                    for (String orderId : ids) {
+                        Order order = current.get(orderId);
+                        OrderStatus from = order != null ? order.getStatus() : null;
+                        if (from == null || !from.canTransitionTo(status)) {
+                            skipped.add(orderId);
+                        } else if (order.getItems() == null && OrderAggregator.needsItems(from, status)) {
+                            legacy.add(order);
+                        } else {
+                            eligible.add(order);
+                        }
+                    }
+
+                    List<List<Order>> chunks = chunkByWrites(eligible, status);
+                    int[] pending = {chunks.size() + (legacy.isEmpty() ? 0 : 1)};
+                    if (pending[0] == 0) {
+                        callback.onSuccess(new BulkStatusResult(updated, skipped, failed));
+                        return;
+                    }
+                    Runnable onChunkDone = () -> {
+                        pending[0]--;
+                        if (pending[0] == 0) {
+                            callback.onSuccess(new BulkStatusResult(updated, skipped, failed));
+                        }
+                    };
+
+                    long changedAt = System.currentTimeMillis();
+                    for (List<Order> chunk : chunks) {
+                        WriteBatch batch = firestore.batch();
+                        for (Order order : chunk) {
+                            batch.update(firestore.collection("orders").document(order.getOrderId()),
+                                    statusUpdate(order, status, paymentStatus, changedAt));
+                            aggregator.onStatusChanged(OrderAggregator.of(batch), order, order.getStatus(), status);
+                        }
+                        batch.commit()
+                                .addOnSuccessListener(aVoid -> {
+                                    for (Order order : chunk) {
+                                        applyStatus(order, status, paymentStatus, changedAt);
+                                        updated.add(order);
+                                    }
+                                    onChunkDone.run();
+                                })
+                                // Rejected when an order's version moved on since the read (see the
+                                // orders rule); retry each order on its own from the status we read
+                                .addOnFailureListener(e -> transitionEach(chunk, status, paymentStatus,
+                                        updated, skipped, failed, onChunkDone));
+                    }
+
+                    // Legacy orders need their lines embedded first, so they take the single-order path
+                    if (!legacy.isEmpty()) {
+                        transitionEach(legacy, status, paymentStatus, updated, skipped, failed, onChunkDone);
+                    }
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // One status transaction per order: for legacy orders, and for a rejected chunk, where it tells
+    // the orders someone else moved (skipped) apart from the ones that can still make the move
+    private void transitionEach(List<Order> orders, OrderStatus status, String paymentStatus, List<Order> updated,
+                                List<String> skipped, List<String> failed, Runnable onDone) {
+        int[] pending = {orders.size()};
+        Runnable onOrderDone = () -> {
+            pending[0]--;
+            if (pending[0] == 0) {
+                onDone.run();
+            }
+        };
+        for (Order order : orders) {
+            transitionOrderStatus(order.getOrderId(), order.getStatus(), status, paymentStatus, new TransitionCallback() {
+                @Override
+                public void onSuccess(Order updatedOrder) {
+                    updated.add(updatedOrder);
+                    onOrderDone.run();
+                }
+
+                @Override
+                public void onConflict(Order currentOrder) {
+                    skipped.add(order.getOrderId());
+                    onOrderDone.run();
+                }
+
+                @Override
+                public void onError(String message) {
+                    failed.add(order.getOrderId());
+                    onOrderDone.run();
+                }
+            });
+        }
+    }
+
+    // Split orders so no batch goes over the write limit, counting the aggregate writes of each order
+    private List<List<Order>> chunkByWrites(List<Order> orders, OrderStatus status) {
+        List<List<Order>> chunks = new ArrayList<>();
+        List<Order> chunk = new ArrayList<>();
+        int writes = 0;
+        for (Order order : orders) {
+            int orderWrites = 1 + OrderAggregator.writeCount(order, order.getStatus(), status);
+            if (!chunk.isEmpty() && writes + orderWrites > MAX_BATCH_WRITES) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                writes = 0;
+            }
+            chunk.add(order);
+            writes += orderWrites;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    // The code drives queries; the name is kept canonical for older app versions
+    private Map<String, Object> statusUpdate(Order order, OrderStatus status, String paymentStatus, long changedAt) {
         Map<String, Object> updates = new HashMap<>();
-        updates.put("orderStatus", vietnameseOrderStatus);
-        updates.put("paymentStatus", vietnamesePaymentStatus);
+        updates.put("statusCode", status.getCode());
+        updates.put("orderStatus", status.getVietnameseName());
+        updates.put("statusChangedAt", changedAt);
+        // One more than the version the write is based on. The orders rule only accepts a status
+        // write that raises the stored version by exactly one, so a write based on a stale read fails.
+        updates.put("version", order.getVersion() + 1);
+        // OrderAggregator has counted the order by now, even one placed before the rollups
+        updates.put("aggregated", true);
+        if (paymentStatus != null) {
+            updates.put("paymentStatus", paymentStatus);
+        }
+        return updates;
+    }
 
-        firestore.collection("orders")
-                .document(orderId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
+    private void applyStatus(Order order, OrderStatus status, String paymentStatus, long changedAt) {
+        order.setStatus(status);
+        order.setStatusChangedAt(changedAt);
+        order.setVersion(order.getVersion() + 1);
+        order.setAggregated(true);
+        if (paymentStatus != null) {
+            order.setPaymentStatus(paymentStatus);
+        }
+    }
+
+    @Override
+    public void transitionOrderStatus(String orderId, OrderStatus expectedStatus, OrderStatus newStatus,
+                                      String paymentStatus, TransitionCallback callback) {
+        runStatusTransaction(orderId, expectedStatus, newStatus, paymentStatus, true, callback);
+    }
+
+    // Unconditional change, for callers that don't track the current status
+    private void applyStatusChange(String orderId, String orderStatus, String paymentStatus, ActionCallback callback) {
+        OrderStatus newStatus = OrderStatus.resolve(orderStatus);
+        if (newStatus == null) {
+            callback.onError("Unknown order status: " + orderStatus);
+            return;
+        }
+
+        runStatusTransaction(orderId, null, newStatus, paymentStatus, true, new TransitionCallback() {
+            @Override
+            public void onSuccess(Order order) {
+                callback.onSuccess();
+            }
+
+            @Override
+            public void onConflict(Order currentOrder) {
+                // Not reachable without an expected status
+                callback.onError("Order was changed by someone else");
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    // What one status transaction did
+    private static final class StatusChange {
+        static final int APPLIED = 0;
+        static final int CONFLICT = 1;
+        static final int NEEDS_ITEMS = 2;
+
+        final int outcome;
+        final Order order;
+
+        StatusChange(int outcome, Order order) {
+            this.outcome = outcome;
+            this.order = order;
+        }
+    }
+
+    // Status changes run in a transaction so the daily rollup always follows the order.
+    // The read and the precondition check happen inside it, so two admins can't both apply a change.
+    private void runStatusTransaction(String orderId, OrderStatus expectedStatus, OrderStatus newStatus,
+                                      String paymentStatus, boolean embedItemsIfMissing, TransitionCallback callback) {
+        DocumentReference orderRef = firestore.collection("orders").document(orderId);
+
+        firestore.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(orderRef);
+            Order order = snapshot.toObject(Order.class);
+            if (order == null) {
+                throw new FirebaseFirestoreException("Order not found",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+            order.setOrderId(snapshot.getId());
+
+            OrderStatus from = order.getStatus();
+            if (expectedStatus != null) {
+                if (from != expectedStatus) {
+                    // Someone else moved the order first: write nothing and hand back what they did
+                    return new StatusChange(StatusChange.CONFLICT, order);
+                }
+                if (!from.canTransitionTo(newStatus)) {
+                    throw new FirebaseFirestoreException("Invalid status transition from " + from + " to " + newStatus,
+                            FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+                }
+            }
+            if (embedItemsIfMissing && order.getItems() == null && OrderAggregator.needsItems(from, newStatus)) {
+                // Legacy order without embedded lines: embed them first, then retry
+                return new StatusChange(StatusChange.NEEDS_ITEMS, order);
+            }
+
+            long changedAt = System.currentTimeMillis();
+            transaction.update(orderRef, statusUpdate(order, newStatus, paymentStatus, changedAt));
+            aggregator.onStatusChanged(OrderAggregator.of(transaction), order, from, newStatus);
+
+            applyStatus(order, newStatus, paymentStatus, changedAt);
+            return new StatusChange(StatusChange.APPLIED, order);
+        })
+                .addOnSuccessListener(change -> {
+                    if (change.outcome == StatusChange.APPLIED) {
+                        callback.onSuccess(change.order);
+                        return;
+                    }
+                    if (change.outcome == StatusChange.CONFLICT) {
+                        callback.onConflict(change.order);
+                        return;
+                    }
+                    embedLegacyItems(orderId, new DataCallback<List<OrderItem>>() {
+                        @Override
+                        public void onSuccess(List<OrderItem> items) {
+                            runStatusTransaction(orderId, expectedStatus, newStatus, paymentStatus, false, callback);
+                        }
+
+                        @Override
+                        public void onError(String message) {
+                            callback.onError(message);
+                        }
+                    });
+                })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
     public void getOrderDetails(String orderId, DataCallback<List<OrderDetail>> callback) {
+        getOrderById(orderId, new DataCallback<Order>() {
+            @Override
+            public void onSuccess(Order order) {
+                getOrderDetails(order, callback);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    @Override
+    public void getOrderDetails(Order order, DataCallback<List<OrderDetail>> callback) {
+        // Lines carry their own name, image and price snapshot, so no food reads are needed
+        if (order.getItems() != null) {
+            callback.onSuccess(toOrderDetails(order.getOrderId(), order.getItems()));
+            return;
+        }
+
+        // Legacy order: read its orderDetails subcollection. Only the admin backfill and status
+        // changes write the embedded items, so showing an order never writes to it.
+        readLegacyItems(order.getOrderId(), new DataCallback<List<OrderItem>>() {
+            @Override
+            public void onSuccess(List<OrderItem> items) {
+                order.setItems(items);
+                callback.onSuccess(toOrderDetails(order.getOrderId(), items));
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    @Override
+    public void backfillOrderItems(ActionCallback callback) {
         firestore.collection("orders")
-                .document(orderId)
-                .collection("orderDetails")
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<OrderDetail> orderDetails = new ArrayList<>();
-                    int[] pendingCount = {queryDocumentSnapshots.size()};
+                    List<String> legacyOrderIds = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        if (document.get("items") == null) {
+                            legacyOrderIds.add(document.getId());
+                        }
+                    }
 
-                    if (pendingCount[0] == 0) {
-                        callback.onSuccess(orderDetails);
+                    int[] pendingOrders = {legacyOrderIds.size()};
+                    if (pendingOrders[0] == 0) {
+                        callback.onSuccess();
                         return;
                     }
 
-                    queryDocumentSnapshots.forEach(document -> {
+                    String[] firstError = {null};
+                    for (String orderId : legacyOrderIds) {
+                        embedLegacyItems(orderId, new DataCallback<List<OrderItem>>() {
+                            @Override
+                            public void onSuccess(List<OrderItem> items) {
+                                onOrderDone();
+                            }
+
+                            @Override
+                            public void onError(String message) {
+                                if (firstError[0] == null) {
+                                    firstError[0] = message;
+                                }
+                                onOrderDone();
+                            }
+
+                            private void onOrderDone() {
+                                pendingOrders[0]--;
+                                if (pendingOrders[0] == 0) {
+                                    if (firstError[0] == null) {
+                                        callback.onSuccess();
+                                    } else {
+                                        callback.onError(firstError[0]);
+                                    }
+                                }
+                            }
+                        });
+                    }
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // Copy the orderDetails subcollection of an old order into its "items" array
+    private void embedLegacyItems(String orderId, DataCallback<List<OrderItem>> callback) {
+        readLegacyItems(orderId, new DataCallback<List<OrderItem>>() {
+            @Override
+            public void onSuccess(List<OrderItem> items) {
+                firestore.collection("orders")
+                        .document(orderId)
+                        .update("items", items)
+                        .addOnSuccessListener(aVoid -> callback.onSuccess(items))
+                        .addOnFailureListener(e -> callback.onError(e.getMessage()));
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    // Line items of an old order from its orderDetails subcollection.
+    // Name and image come from the current food document, as the old lines never stored them.
+    private void readLegacyItems(String orderId, DataCallback<List<OrderItem>> callback) {
+        firestore.collection("orders")
+                .document(orderId)
+                .collection("orderDetails")
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<OrderDetail> details = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
                         OrderDetail orderDetail = document.toObject(OrderDetail.class);
                         orderDetail.setOrderDetailId(document.getId());
+                        details.add(orderDetail);
+                    }
 
-                        // Fetch food information
-                        firestore.collection("foods")
-                                .document(orderDetail.getFoodId())
-                                .get()
-                                .addOnSuccessListener(foodDoc -> {
-                                    if (foodDoc.exists()) {
-                                        Food food = foodDoc.toObject(Food.class);
-                                        if (food != null) {
-                                            food.setFoodId(foodDoc.getId());
-                                            orderDetail.setFood(food);
-                                        }
-                                    }
-                                    orderDetails.add(orderDetail);
-                                    pendingCount[0]--;
-
-                                    if (pendingCount[0] == 0) {
-                                        callback.onSuccess(orderDetails);
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
-                                    orderDetails.add(orderDetail);
-                                    pendingCount[0]--;
+                    attachFoods(details, new DataCallback<List<OrderDetail>>() {
+                        @Override
+                        public void onSuccess(List<OrderDetail> hydrated) {
+                            List<OrderItem> items = new ArrayList<>();
+                            for (OrderDetail detail : hydrated) {
+                                Food food = detail.getFood();
+                                String foodName = detail.getFoodName() != null ? detail.getFoodName()
+                                        : food != null ? food.getName() : null;
+                                String imageUrl = detail.getImageUrl() != null ? detail.getImageUrl()
+                                        : food != null ? food.getImageUrl() : null;
+                                items.add(new OrderItem(detail.getFoodId(), foodName,
+                                        detail.getUnitPrice(), detail.getQuantity(), imageUrl));
+                            }
+
+                            callback.onSuccess(items);
+                        }
 
-                                    if (pendingCount[0] == 0) {
-                                        callback.onSuccess(orderDetails);
-                                    }
-                                });
+                        @Override
+                        public void onError(String message) {
+                            callback.onError(message);
+                        }
                     });
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
-    public void getPendingOrdersCount(DataCallback<Integer> callback) {
+    public void migrateStatusCodes(ActionCallback callback) {
         firestore.collection("orders")
-                .whereEqualTo("orderStatus", "Chờ xác nhận")
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    callback.onSuccess(queryDocumentSnapshots.size());
+                    // Only orders without a code, or with a non-canonical name, need a write
+                    List<DocumentReference> orderRefs = new ArrayList<>();
+                    List<Map<String, Object>> updates = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        Order order = document.toObject(Order.class);
+                        OrderStatus status = order.getStatus();
+                        if (status == null) continue;
+                        if (order.getStatusCode() == status.getCode()
+                                && status.getVietnameseName().equals(order.getOrderStatus())) continue;
+
+                        Map<String, Object> update = new HashMap<>();
+                        update.put("statusCode", status.getCode());
+                        update.put("orderStatus", status.getVietnameseName());
+                        if (order.getStatusChangedAt() == 0) {
+                            update.put("statusChangedAt", order.getCreatedAt());
+                        }
+                        orderRefs.add(document.getReference());
+                        updates.add(update);
+                    }
+
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (int i = 0; i < orderRefs.size(); i += MAX_BATCH_WRITES) {
+                        WriteBatch batch = firestore.batch();
+                        for (int j = i; j < Math.min(i + MAX_BATCH_WRITES, orderRefs.size()); j++) {
+                            batch.update(orderRefs.get(j), updates.get(j));
+                        }
+                        commits.add(batch.commit());
+                    }
+
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> callback.onSuccess())
+                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
+    // Detail ids match the stored orderDetails documents, which are keyed by food id
+    private List<OrderDetail> toOrderDetails(String orderId, List<OrderItem> items) {
+        List<OrderDetail> orderDetails = new ArrayList<>();
+        Set<String> usedIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            String detailId = items.get(i).getFoodId();
+            // Legacy orders could list a food twice; keep their ids apart
+            if (detailId == null || !usedIds.add(detailId)) {
+                detailId = detailId + "-" + i;
+                usedIds.add(detailId);
+            }
+            orderDetails.add(new OrderDetail(detailId, orderId, items.get(i)));
+        }
+        return orderDetails;
+    }
+
+    // Attach the current Food to legacy lines that predate the name/image snapshot
+    private void attachFoods(List<OrderDetail> orderDetails, DataCallback<List<OrderDetail>> callback) {
+        if (orderDetails.isEmpty()) {
+            callback.onSuccess(orderDetails);
+            return;
+        }
+
+        List<String> foodIds = new ArrayList<>();
+        for (OrderDetail orderDetail : orderDetails) {
+            foodIds.add(orderDetail.getFoodId());
+        }
+
+        // Fetch food information for all lines in one batched lookup
+        foodRepository.getFoodsByIds(foodIds, new FoodRepository.DataCallback<Map<String, Food>>() {
+            @Override
+            public void onSuccess(Map<String, Food> foods) {
+                for (OrderDetail orderDetail : orderDetails) {
+                    Food food = foods.get(orderDetail.getFoodId());
+                    if (food != null) {
+                        orderDetail.setFood(food);
+                    }
+                }
+                callback.onSuccess(orderDetails);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onSuccess(orderDetails);
+            }
+        });
+    }
+
+    @Override
+    public void getPendingOrdersCount(DataCallback<Integer> callback) {
+        Query pendingOrders = firestore.collection("orders")
+                .whereEqualTo("statusCode", OrderStatus.PENDING.getCode());
+
+        // count() is answered by the server without downloading the orders
+        pendingOrders.count()
+                .get(AggregateSource.SERVER)
+                .addOnSuccessListener(snapshot -> callback.onSuccess((int) snapshot.getCount()))
+                .addOnFailureListener(countError -> pendingOrders.get()
+                        .addOnSuccessListener(queryDocumentSnapshots -> {
+                            callback.onSuccess(queryDocumentSnapshots.size());
+                        })
+                        .addOnFailureListener(e -> callback.onError(e.getMessage())));
+    }
+
     @Override
     public void listenToPendingOrders(OrderCountListener listener) {
         // Remove existing listener if any
@@ -277,7 +852,7 @@ public class OrderRepositoryImpl implements OrderRepository {
 
         // Listen to pending orders in real-time
         orderListener = firestore.collection("orders")
-                .whereEqualTo("orderStatus", "Chờ xác nhận")
+                .whereEqualTo("statusCode", OrderStatus.PENDING.getCode())
                 .addSnapshotListener((queryDocumentSnapshots, error) -> {
                     if (error != null) {
                         return;
@@ -295,4 +870,44 @@ public class OrderRepositoryImpl implements OrderRepository {
             orderListener = null;
         }
     }
+
+    @Override
+    public void listenToRecentOrders(int limit, OrderFeedListener listener) {
+        removeRecentOrdersListener();
+
+        recentOrdersListener = firestore.collection("orders")
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(limit)
+                .addSnapshotListener((queryDocumentSnapshots, error) -> {
+                    if (error != null) {
+                        listener.onError(error.getMessage());
+                        return;
+                    }
+                    if (queryDocumentSnapshots == null) {
+                        return;
+                    }
+
+                    // Only the documents that changed since the last snapshot
+                    List<Order> changedOrders = new ArrayList<>();
+                    for (DocumentChange change : queryDocumentSnapshots.getDocumentChanges()) {
+                        // REMOVED only means an order slid out of the newest-N window (orders are
+                        // never deleted), so the caller keeps it
+                        if (change.getType() == DocumentChange.Type.REMOVED) continue;
+
+                        Order order = change.getDocument().toObject(Order.class);
+                        order.setOrderId(change.getDocument().getId());
+                        changedOrders.add(order);
+                    }
+                    listener.onOrdersChanged(changedOrders);
+                });
+    }
+
+    @Override
+    public void removeRecentOrdersListener() {
+        if (recentOrdersListener != null) {
+            recentOrdersListener.remove();
+            recentOrdersListener = null;
+        }
+    }
 }
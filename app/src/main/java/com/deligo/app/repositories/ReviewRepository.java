@@ -7,6 +7,8 @@ public interface ReviewRepository {
     void addReview(String userId, String userName, String foodId, int rating, String comment, ActionCallback callback);
     void getReviewsByFood(String foodId, DataCallback<List<Review>> callback);
     void getAverageRating(String foodId, DataCallback<Double> callback);
+    // One-off: recompute every food's rating aggregate from its reviews
+    void rebuildRatingAggregates(ActionCallback callback);
     void canUserReviewFood(String userId, String foodId, DataCallback<Boolean> callback);
     
     interface DataCallback<T> {
@@ -1,8 +1,18 @@
 package com.deligo.app.repositories;
 
+import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.models.Order;
+import com.deligo.app.models.OrderItem;
 import com.deligo.app.models.Review;
+import com.deligo.app.utils.Constants;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -10,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 public class ReviewRepositoryImpl implements ReviewRepository {
+    private static final int MAX_BATCH_WRITES = 500;
     private final FirebaseFirestore firestore;
 
     public ReviewRepositoryImpl() {
@@ -26,9 +37,21 @@ public class ReviewRepositoryImpl implements ReviewRepository {
         reviewData.put("comment", comment);
         reviewData.put("createdAt", System.currentTimeMillis());
 
-        firestore.collection("reviews")
-                .add(reviewData)
-                .addOnSuccessListener(documentReference -> callback.onSuccess())
+        // Write the review and update the food's rating aggregate atomically
+        Map<String, Object> histogram = new HashMap<>();
+        histogram.put(String.valueOf(rating), FieldValue.increment(1));
+
+        Map<String, Object> ratingAggregate = new HashMap<>();
+        ratingAggregate.put("ratingSum", FieldValue.increment(rating));
+        ratingAggregate.put("ratingCount", FieldValue.increment(1));
+        ratingAggregate.put("ratingHistogram", histogram);
+        ratingAggregate.put("updatedAt", FieldValue.serverTimestamp());
+
+        WriteBatch batch = firestore.batch();
+        batch.set(firestore.collection("reviews").document(), reviewData);
+        batch.set(firestore.collection("foods").document(foodId), ratingAggregate, SetOptions.merge());
+        batch.commit()
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
@@ -52,50 +75,122 @@ public class ReviewRepositoryImpl implements ReviewRepository {
 
     @Override
     public void getAverageRating(String foodId, DataCallback<Double> callback) {
-        firestore.collection("reviews")
-                .whereEqualTo("foodId", foodId)
+        // One read of the food's rating aggregate, however many reviews it has
+        firestore.collection("foods")
+                .document(foodId)
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (queryDocumentSnapshots.isEmpty()) {
+                .addOnSuccessListener(documentSnapshot -> {
+                    Long ratingSum = documentSnapshot.getLong("ratingSum");
+                    Long ratingCount = documentSnapshot.getLong("ratingCount");
+                    if (ratingSum == null || ratingCount == null || ratingCount == 0) {
                         callback.onSuccess(0.0);
                         return;
                     }
+                    callback.onSuccess((double) ratingSum / ratingCount);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
 
-                    double totalRating = 0;
-                    int count = 0;
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+    @Override
+    public void rebuildRatingAggregates(ActionCallback callback) {
+        firestore.collection("reviews")
+                .get()
+                .addOnSuccessListener(reviewSnapshots -> {
+                    Map<String, Map<String, Object>> aggregates = new HashMap<>();
+                    for (QueryDocumentSnapshot document : reviewSnapshots) {
                         Review review = document.toObject(Review.class);
-                        totalRating += review.getRating();
-                        count++;
+                        if (review.getFoodId() == null) continue;
+
+                        Map<String, Object> aggregate = aggregates.get(review.getFoodId());
+                        if (aggregate == null) {
+                            aggregate = new HashMap<>();
+                            aggregate.put("ratingSum", 0L);
+                            aggregate.put("ratingCount", 0L);
+                            aggregate.put("ratingHistogram", new HashMap<String, Long>());
+                            aggregate.put("updatedAt", FieldValue.serverTimestamp());
+                            aggregates.put(review.getFoodId(), aggregate);
+                        }
+                        aggregate.put("ratingSum", (long) aggregate.get("ratingSum") + review.getRating());
+                        aggregate.put("ratingCount", (long) aggregate.get("ratingCount") + 1);
+
+                        @SuppressWarnings("unchecked")
+                        Map<String, Long> histogram = (Map<String, Long>) aggregate.get("ratingHistogram");
+                        String bucket = String.valueOf(review.getRating());
+                        histogram.put(bucket, histogram.getOrDefault(bucket, 0L) + 1);
                     }
 
-                    double averageRating = count > 0 ? totalRating / count : 0.0;
-                    callback.onSuccess(averageRating);
+                    // Firestore batches are limited to 500 writes
+                    List<String> foodIds = new ArrayList<>(aggregates.keySet());
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (int i = 0; i < foodIds.size(); i += MAX_BATCH_WRITES) {
+                        WriteBatch batch = firestore.batch();
+                        for (String foodId : foodIds.subList(i, Math.min(i + MAX_BATCH_WRITES, foodIds.size()))) {
+                            DocumentReference foodRef = firestore.collection("foods").document(foodId);
+                            batch.set(foodRef, aggregates.get(foodId),
+                                    SetOptions.mergeFields("ratingSum", "ratingCount", "ratingHistogram", "updatedAt"));
+                        }
+                        commits.add(batch.commit());
+                    }
+
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> callback.onSuccess())
+                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
     public void canUserReviewFood(String userId, String foodId, DataCallback<Boolean> callback) {
-        // Check if user has a completed order containing this food item
-        firestore.collection("orders")
-                .whereEqualTo("customerId", userId)
-                .whereEqualTo("orderStatus", "completed")
+        // The purchases index is kept up to date whenever an order completes or leaves completed
+        firestore.collection(Constants.COLLECTION_USERS)
+                .document(userId)
+                .collection(Constants.COLLECTION_PURCHASES)
+                .document(foodId)
                 .get()
-                .addOnSuccessListener(orderSnapshots -> {
-                    if (orderSnapshots.isEmpty()) {
-                        callback.onSuccess(false);
+                .addOnSuccessListener(documentSnapshot -> {
+                    Long count = documentSnapshot.getLong("count");
+                    if (count != null && count > 0) {
+                        callback.onSuccess(true);
                         return;
                     }
+                    checkLegacyPurchase(userId, foodId, callback);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
 
-                    // Check if any completed order contains this food item
-                    List<String> orderIds = new ArrayList<>();
-                    for (QueryDocumentSnapshot orderDoc : orderSnapshots) {
-                        orderIds.add(orderDoc.getId());
+    // Orders completed before the purchases index existed are only in it once the admin backfill
+    // has run; until then look through the user's completed orders
+    private void checkLegacyPurchase(String userId, String foodId, DataCallback<Boolean> callback) {
+        firestore.collection(Constants.COLLECTION_META)
+                .document(Constants.DOC_MIGRATIONS)
+                .get()
+                .addOnSuccessListener(documentSnapshot -> {
+                    if (Boolean.TRUE.equals(documentSnapshot.getBoolean(Constants.MIGRATION_PURCHASES))) {
+                        callback.onSuccess(false);
+                        return;
                     }
-
-                    // Check order details for this food
-                    checkOrderDetailsForFood(orderIds, foodId, callback);
+                    firestore.collection("orders")
+                            .whereEqualTo("customerId", userId)
+                            .whereEqualTo("statusCode", OrderStatus.COMPLETED.getCode())
+                            .get()
+                            .addOnSuccessListener(orderSnapshots -> {
+                                List<String> legacyOrderIds = new ArrayList<>();
+                                for (QueryDocumentSnapshot orderDoc : orderSnapshots) {
+                                    Order order = orderDoc.toObject(Order.class);
+                                    if (order.getItems() == null) {
+                                        legacyOrderIds.add(orderDoc.getId());
+                                        continue;
+                                    }
+                                    for (OrderItem item : order.getItems()) {
+                                        if (foodId.equals(item.getFoodId())) {
+                                            callback.onSuccess(true);
+                                            return;
+                                        }
+                                    }
+                                }
+                                checkOrderDetailsForFood(legacyOrderIds, foodId, callback);
+                            })
+                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
@@ -116,11 +211,9 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                 .addOnSuccessListener(detailSnapshots -> {
                     if (!detailSnapshots.isEmpty()) {
                         callback.onSuccess(true);
-                    } else if (orderIds.size() > 1) {
+                    } else {
                         // Check remaining orders
                         checkOrderDetailsForFood(orderIds.subList(1, orderIds.size()), foodId, callback);
-                    } else {
-                        callback.onSuccess(false);
                     }
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
@@ -2,6 +2,7 @@ package com.deligo.app.repositories;
 
 import com.deligo.app.models.FoodSales;
 import com.deligo.app.models.Order;
+import com.deligo.app.models.StatisticsSnapshot;
 
 import java.util.List;
 import java.util.Map;
@@ -19,8 +20,24 @@ public interface StatisticsRepository {
 
     void getTotalSoldCountForFood(String foodId, DataCallback<Integer> callback);
 
+    void getStatisticsSnapshot(long startDate, long endDate, int topLimit, DataCallback<StatisticsSnapshot> callback);
+
+    // One-off: rebuild the daily rollups from the first order on and mark those orders as counted
+    void backfillDailyStats(ActionCallback callback);
+
+    // One-off: set every food's soldCount from the completed orders
+    void rebuildSoldCounts(ActionCallback callback);
+
+    // One-off: build users/{uid}/purchases from the completed orders
+    void rebuildPurchases(ActionCallback callback);
+
     interface DataCallback<T> {
         void onSuccess(T data);
         void onError(String message);
     }
+
+    interface ActionCallback {
+        void onSuccess();
+        void onError(String message);
+    }
 }
@@ -3,23 +3,43 @@ package com.deligo.app.repositories;
 import android.util.Log;
 
 import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.models.DailyStats;
 import com.deligo.app.models.Food;
 import com.deligo.app.models.FoodSales;
 import com.deligo.app.models.Order;
 import com.deligo.app.models.OrderDetail;
+import com.deligo.app.models.OrderItem;
+import com.deligo.app.models.StatisticsSnapshot;
+import com.deligo.app.utils.Constants;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateField;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class StatisticsRepositoryImpl implements StatisticsRepository {
+    private static final String TAG = "StatisticsRepository";
+    // Firestore accepts at most five aggregations in one request
+    private static final int MAX_AGGREGATIONS = 5;
+    private static final int MAX_BATCH_WRITES = 500;
     private final FirebaseFirestore firestore;
+    private final FoodRepository foodRepository;
 
     public StatisticsRepositoryImpl() {
         this.firestore = FirebaseFirestore.getInstance();
+        this.foodRepository = new FoodRepositoryImpl();
     }
 
     @Override
@@ -42,118 +62,167 @@ public class StatisticsRepositoryImpl implements StatisticsRepository {
 
     @Override
     public void getTotalRevenue(long startDate, long endDate, DataCallback<Double> callback) {
-        firestore.collection("orders")
-                .whereGreaterThanOrEqualTo("createdAt", startDate)
-                .whereLessThanOrEqualTo("createdAt", endDate)
-                .whereEqualTo("orderStatus", OrderStatus.COMPLETED.getVietnameseName())
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    double totalRevenue = 0.0;
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Order order = document.toObject(Order.class);
-                        totalRevenue += order.getTotalAmount();
-                    }
-                    callback.onSuccess(totalRevenue);
-                })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+        // sum() runs on the server: constant cost however long the range is
+        AggregateField revenueSum = AggregateField.sum("revenue");
+        dailyStatsRange(startDate, endDate)
+                .aggregate(revenueSum)
+                .get(AggregateSource.SERVER)
+                .addOnSuccessListener(snapshot -> callback.onSuccess(aggregateValue(snapshot, revenueSum).doubleValue()))
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Revenue aggregation failed, reading rollups instead: " + e.getMessage());
+                    getTotalRevenueFromRollups(startDate, endDate, callback);
+                });
+    }
+
+    private void getTotalRevenueFromRollups(long startDate, long endDate, DataCallback<Double> callback) {
+        queryDailyStats(startDate, endDate, new DataCallback<List<DailyStats>>() {
+            @Override
+            public void onSuccess(List<DailyStats> days) {
+                double totalRevenue = 0.0;
+                for (DailyStats day : days) {
+                    totalRevenue += day.getRevenue();
+                }
+                callback.onSuccess(totalRevenue);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
     }
 
     @Override
     public void getOrderCountByStatus(long startDate, long endDate, DataCallback<Map<String, Integer>> callback) {
-        firestore.collection("orders")
-                .whereGreaterThanOrEqualTo("createdAt", startDate)
-                .whereLessThanOrEqualTo("createdAt", endDate)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
+        // One sum() per status bucket, at most MAX_AGGREGATIONS per request
+        OrderStatus[] statuses = OrderStatus.values();
+        List<Task<AggregateQuerySnapshot>> requests = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i += MAX_AGGREGATIONS) {
+            List<AggregateField> fields = new ArrayList<>();
+            for (int j = i; j < Math.min(i + MAX_AGGREGATIONS, statuses.length); j++) {
+                fields.add(AggregateField.sum("statusCounts." + statuses[j].name()));
+            }
+            requests.add(dailyStatsRange(startDate, endDate)
+                    .aggregate(fields.get(0), fields.subList(1, fields.size()).toArray(new AggregateField[0]))
+                    .get(AggregateSource.SERVER));
+        }
+
+        Tasks.whenAllSuccess(requests)
+                .addOnSuccessListener(results -> {
                     Map<String, Integer> statusCount = new HashMap<>();
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        Order order = document.toObject(Order.class);
-                        String status = order.getOrderStatus();
-                        statusCount.put(status, statusCount.getOrDefault(status, 0) + 1);
+                    for (int i = 0; i < statuses.length; i++) {
+                        AggregateQuerySnapshot snapshot = (AggregateQuerySnapshot) results.get(i / MAX_AGGREGATIONS);
+                        long count = aggregateValue(snapshot, AggregateField.sum("statusCounts." + statuses[i].name())).longValue();
+                        if (count > 0) {
+                            statusCount.put(statuses[i].getVietnameseName(), (int) count);
+                        }
                     }
                     callback.onSuccess(statusCount);
                 })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Status aggregation failed, reading rollups instead: " + e.getMessage());
+                    getOrderCountByStatusFromRollups(startDate, endDate, callback);
+                });
+    }
+
+    private void getOrderCountByStatusFromRollups(long startDate, long endDate, DataCallback<Map<String, Integer>> callback) {
+        queryDailyStats(startDate, endDate, new DataCallback<List<DailyStats>>() {
+            @Override
+            public void onSuccess(List<DailyStats> days) {
+                Map<String, Integer> statusCount = new HashMap<>();
+                for (DailyStats day : days) {
+                    for (Map.Entry<String, Long> entry : day.getStatusCounts().entrySet()) {
+                        if (entry.getValue() == null || entry.getValue() <= 0) continue;
+                        String status = statusDisplayName(entry.getKey());
+                        statusCount.put(status, statusCount.getOrDefault(status, 0) + entry.getValue().intValue());
+                    }
+                }
+                callback.onSuccess(statusCount);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
     }
 
     @Override
     public void getTopSellingFoods(long startDate, long endDate, int limit, DataCallback<List<FoodSales>> callback) {
-        // First, get ALL orders in the date range (without status filter) to debug
-        firestore.collection("orders")
-                .whereGreaterThanOrEqualTo("createdAt", startDate)
-                .whereLessThanOrEqualTo("createdAt", endDate)
-                .get()
-                .addOnSuccessListener(allOrdersSnapshot -> {
-                    // Log all order statuses for debugging
-                    Map<String, Integer> statusDebug = new HashMap<>();
-                    for (QueryDocumentSnapshot doc : allOrdersSnapshot) {
-                        Order order = doc.toObject(Order.class);
-                        String status = order.getOrderStatus();
-                        statusDebug.put(status, statusDebug.getOrDefault(status, 0) + 1);
+        queryDailyStats(startDate, endDate, new DataCallback<List<DailyStats>>() {
+            @Override
+            public void onSuccess(List<DailyStats> days) {
+                // Map to store foodId -> total quantity sold
+                Map<String, Integer> foodQuantityMap = new HashMap<>();
+                for (DailyStats day : days) {
+                    for (Map.Entry<String, Long> entry : day.getItemQuantities().entrySet()) {
+                        if (entry.getValue() == null || entry.getValue() <= 0) continue;
+                        int oldQuantity = foodQuantityMap.getOrDefault(entry.getKey(), 0);
+                        foodQuantityMap.put(entry.getKey(), oldQuantity + entry.getValue().intValue());
                     }
-                    // Now get only completed orders
-                    firestore.collection("orders")
-                            .whereGreaterThanOrEqualTo("createdAt", startDate)
-                            .whereLessThanOrEqualTo("createdAt", endDate)
-                            .whereEqualTo("orderStatus", OrderStatus.COMPLETED.getVietnameseName())
-                            .get()
-                            .addOnSuccessListener(queryDocumentSnapshots -> {
-                                // Map to store foodId -> total quantity sold
-                                Map<String, Integer> foodQuantityMap = new HashMap<>();
-                                int[] pendingOrders = {queryDocumentSnapshots.size()};
-
-                                if (pendingOrders[0] == 0) {
-                                    callback.onSuccess(new ArrayList<>());
-                                    return;
-                                }
+                }
+                processFoodSales(foodQuantityMap, limit, callback);
+            }
 
-                                // For each order, get its order details
-                                for (QueryDocumentSnapshot orderDoc : queryDocumentSnapshots) {
-                                    String orderId = orderDoc.getId();
-                                    Order order = orderDoc.toObject(Order.class);
-
-                                    firestore.collection("orders")
-                                            .document(orderId)
-                                            .collection("orderDetails")
-                                            .get()
-                                            .addOnSuccessListener(detailSnapshots -> {
-                                                synchronized (foodQuantityMap) {
-                                                    for (QueryDocumentSnapshot detailDoc : detailSnapshots) {
-                                                        OrderDetail detail = detailDoc.toObject(OrderDetail.class);
-                                                        String foodId = detail.getFoodId();
-                                                        int quantity = detail.getQuantity();
-                                                        
-                                                        int oldQuantity = foodQuantityMap.getOrDefault(foodId, 0);
-                                                        int newQuantity = oldQuantity + quantity;
-                                                        foodQuantityMap.put(foodId, newQuantity);
-                                                    }
-                                                }
-
-                                                synchronized (pendingOrders) {
-                                                    pendingOrders[0]--;
-                                                    // When all orders are processed
-                                                    if (pendingOrders[0] == 0) {
-                                                        processFoodSales(foodQuantityMap, limit, callback);
-                                                    }
-                                                }
-                                            })
-                                            .addOnFailureListener(e -> {
-                                                synchronized (pendingOrders) {
-                                                    pendingOrders[0]--;
-                                                    if (pendingOrders[0] == 0) {
-                                                        processFoodSales(foodQuantityMap, limit, callback);
-                                                    }
-                                                }
-                                            });
-                                }
-                            })
-                            .addOnFailureListener(e -> {
-                                callback.onError(e.getMessage());
-                            });
-                })
-                .addOnFailureListener(e -> {
-                    callback.onError(e.getMessage());
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    @Override
+    public void getStatisticsSnapshot(long startDate, long endDate, int topLimit,
+                                      DataCallback<StatisticsSnapshot> callback) {
+        queryDailyStats(startDate, endDate, new DataCallback<List<DailyStats>>() {
+            @Override
+            public void onSuccess(List<DailyStats> days) {
+                // One pass over the range: revenue, status counts, daily series and item totals
+                double totalRevenue = 0.0;
+                int orderCount = 0;
+                Map<String, Integer> ordersByStatus = new HashMap<>();
+                Map<String, Double> dailyRevenue = new TreeMap<>();
+                Map<String, Integer> foodQuantityMap = new HashMap<>();
+
+                for (DailyStats day : days) {
+                    totalRevenue += day.getRevenue();
+                    if (day.getRevenue() > 0) {
+                        dailyRevenue.put(day.getDateKey(), day.getRevenue());
+                    }
+                    for (Map.Entry<String, Long> entry : day.getStatusCounts().entrySet()) {
+                        if (entry.getValue() == null || entry.getValue() <= 0) continue;
+                        String status = statusDisplayName(entry.getKey());
+                        ordersByStatus.put(status, ordersByStatus.getOrDefault(status, 0) + entry.getValue().intValue());
+                        orderCount += entry.getValue().intValue();
+                    }
+                    for (Map.Entry<String, Long> entry : day.getItemQuantities().entrySet()) {
+                        if (entry.getValue() == null || entry.getValue() <= 0) continue;
+                        foodQuantityMap.put(entry.getKey(),
+                                foodQuantityMap.getOrDefault(entry.getKey(), 0) + entry.getValue().intValue());
+                    }
+                }
+
+                double revenue = totalRevenue;
+                int count = orderCount;
+                processFoodSales(foodQuantityMap, topLimit, new DataCallback<List<FoodSales>>() {
+                    @Override
+                    public void onSuccess(List<FoodSales> topSellingFoods) {
+                        callback.onSuccess(new StatisticsSnapshot(startDate, endDate, revenue, count,
+                                ordersByStatus, dailyRevenue, topSellingFoods));
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        callback.onError(message);
+                    }
                 });
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
     }
 
     private void processFoodSales(Map<String, Integer> foodQuantityMap, int limit, 
@@ -179,144 +248,394 @@ public class StatisticsRepositoryImpl implements StatisticsRepository {
 
         // Limit the results
         int resultSize = Math.min(limit, sortedEntries.size());
-        List<FoodSales> foodSalesList = new ArrayList<>();
-        int[] pendingFoods = {resultSize};
-        
+        List<String> topFoodIds = new ArrayList<>();
+        for (int i = 0; i < resultSize; i++) {
+            topFoodIds.add(sortedEntries.get(i).getKey());
+        }
+
         Log.d("TESTMINHTUAN", "Fetching details for top " + resultSize + " foods");
 
-        for (int i = 0; i < resultSize; i++) {
-            Map.Entry<String, Integer> entry = sortedEntries.get(i);
-            String foodId = entry.getKey();
-            int quantitySold = entry.getValue();
+        // One batched lookup for all top foods
+        foodRepository.getFoodsByIds(topFoodIds, new FoodRepository.DataCallback<Map<String, Food>>() {
+            @Override
+            public void onSuccess(Map<String, Food> foods) {
+                List<FoodSales> foodSalesList = new ArrayList<>();
+                for (int i = 0; i < resultSize; i++) {
+                    Map.Entry<String, Integer> entry = sortedEntries.get(i);
+                    Food food = foods.get(entry.getKey());
+                    if (food != null) {
+                        foodSalesList.add(new FoodSales(food, entry.getValue()));
+                    } else {
+                        Log.e("TESTMINHTUAN", "Food document does not exist for foodId: " + entry.getKey());
+                    }
+                }
 
-            // Fetch food details
-            firestore.collection("foods")
-                    .document(foodId)
-                    .get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            Food food = documentSnapshot.toObject(Food.class);
-                            if (food != null) {
-                                food.setFoodId(documentSnapshot.getId());
-                                FoodSales foodSales = new FoodSales(food, quantitySold);
-                                foodSalesList.add(foodSales);
-                                Log.d("TESTMINHTUAN", "Added food: " + food.getName() + " | Quantity: " + quantitySold);
-                            } else {
-                                Log.e("TESTMINHTUAN", "Food object is null for foodId: " + foodId);
-                            }
-                        } else {
-                            Log.e("TESTMINHTUAN", "Food document does not exist for foodId: " + foodId);
-                        }
+                Log.d("TESTMINHTUAN", "========== FINAL RESULT ==========");
+                Log.d("TESTMINHTUAN", "Total foods in result: " + foodSalesList.size());
+                for (int j = 0; j < foodSalesList.size(); j++) {
+                    FoodSales fs = foodSalesList.get(j);
+                    Log.d("TESTMINHTUAN", (j + 1) + ". " + fs.getFood().getName() + " - Sold: " + fs.getQuantitySold());
+                }
+                Log.d("TESTMINHTUAN", "========== END ==========");
 
-                        pendingFoods[0]--;
-                        Log.d("TESTMINHTUAN", "Pending foods remaining: " + pendingFoods[0]);
-                        
-                        if (pendingFoods[0] == 0) {
-                            // Sort again to maintain order after async operations
-                            foodSalesList.sort((a, b) -> 
-                                Integer.compare(b.getQuantitySold(), a.getQuantitySold()));
-                            
-                            Log.d("TESTMINHTUAN", "========== FINAL RESULT ==========");
-                            Log.d("TESTMINHTUAN", "Total foods in result: " + foodSalesList.size());
-                            for (int j = 0; j < foodSalesList.size(); j++) {
-                                FoodSales fs = foodSalesList.get(j);
-                                Log.d("TESTMINHTUAN", (j + 1) + ". " + fs.getFood().getName() + " - Sold: " + fs.getQuantitySold());
-                            }
-                            Log.d("TESTMINHTUAN", "========== END ==========");
-                            
-                            callback.onSuccess(foodSalesList);
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e("TESTMINHTUAN", "Failed to fetch food details for " + foodId + ": " + e.getMessage());
-                        pendingFoods[0]--;
-                        if (pendingFoods[0] == 0) {
-                            foodSalesList.sort((a, b) -> 
-                                Integer.compare(b.getQuantitySold(), a.getQuantitySold()));
-                            callback.onSuccess(foodSalesList);
+                callback.onSuccess(foodSalesList);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    @Override
+    public void getTotalSoldCountForFood(String foodId, DataCallback<Integer> callback) {
+        // soldCount is maintained on the food document whenever an order completes or is cancelled
+        firestore.collection("foods")
+                .document(foodId)
+                .get()
+                .addOnSuccessListener(documentSnapshot -> {
+                    Long soldCount = documentSnapshot.getLong("soldCount");
+                    callback.onSuccess(soldCount != null ? soldCount.intValue() : 0);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    @Override
+    public void rebuildSoldCounts(ActionCallback callback) {
+        firestore.collection("orders")
+                .whereEqualTo("statusCode", OrderStatus.COMPLETED.getCode())
+                .get()
+                .addOnSuccessListener(orderSnapshots -> {
+                    List<Order> completedOrders = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : orderSnapshots) {
+                        Order order = document.toObject(Order.class);
+                        order.setOrderId(document.getId());
+                        completedOrders.add(order);
+                    }
+
+                    loadMissingItems(completedOrders, () -> {
+                        Map<String, Long> soldCounts = new HashMap<>();
+                        for (Order order : completedOrders) {
+                            addQuantities(soldCounts, order.getItems());
                         }
+                        writeSoldCounts(soldCounts, callback);
                     });
-        }
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
-    public void getTotalSoldCountForFood(String foodId, DataCallback<Integer> callback) {
-        // Get all completed orders
+    public void rebuildPurchases(ActionCallback callback) {
+        // Backfill users/{uid}/purchases from completed orders placed before the index existed
         firestore.collection("orders")
-                .whereEqualTo("orderStatus", OrderStatus.COMPLETED.getVietnameseName())
+                .whereEqualTo("statusCode", OrderStatus.COMPLETED.getCode())
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    int totalSold = 0;
-                    int[] pendingOrders = {queryDocumentSnapshots.size()};
+                .addOnSuccessListener(orderSnapshots -> {
+                    List<Order> completedOrders = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : orderSnapshots) {
+                        Order order = document.toObject(Order.class);
+                        order.setOrderId(document.getId());
+                        if (order.getCustomerId() != null) {
+                            completedOrders.add(order);
+                        }
+                    }
 
-                    if (pendingOrders[0] == 0) {
-                        callback.onSuccess(0);
-                        return;
+                    loadMissingItems(completedOrders, () -> {
+                        Map<DocumentReference, Map<String, Object>> purchases = new HashMap<>();
+                        for (Order order : completedOrders) {
+                            if (order.getItems() == null) continue;
+                            for (String foodId : OrderAggregator.sumQuantities(order.getItems()).keySet()) {
+                                DocumentReference purchaseRef = firestore.collection(Constants.COLLECTION_USERS)
+                                        .document(order.getCustomerId())
+                                        .collection(Constants.COLLECTION_PURCHASES)
+                                        .document(foodId);
+                                Map<String, Object> purchase = purchases.get(purchaseRef);
+                                if (purchase == null) {
+                                    purchase = new HashMap<>();
+                                    purchase.put("foodId", foodId);
+                                    purchase.put("count", 0L);
+                                    purchase.put("lastPurchasedAt", 0L);
+                                    purchases.put(purchaseRef, purchase);
+                                }
+                                purchase.put("count", (Long) purchase.get("count") + 1);
+                                purchase.put("lastPurchasedAt",
+                                        Math.max((Long) purchase.get("lastPurchasedAt"), order.getCreatedAt()));
+                            }
+                        }
+                        writePurchases(purchases, callback);
+                    });
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private void writePurchases(Map<DocumentReference, Map<String, Object>> purchases, ActionCallback callback) {
+        List<DocumentReference> purchaseRefs = new ArrayList<>(purchases.keySet());
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int i = 0; i < purchaseRefs.size(); i += MAX_BATCH_WRITES) {
+            WriteBatch batch = firestore.batch();
+            for (DocumentReference purchaseRef : purchaseRefs.subList(i, Math.min(i + MAX_BATCH_WRITES, purchaseRefs.size()))) {
+                batch.set(purchaseRef, purchases.get(purchaseRef));
+            }
+            commits.add(batch.commit());
+        }
+
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // Every food gets a value, so foods without completed sales are reset to zero
+    private void writeSoldCounts(Map<String, Long> soldCounts, ActionCallback callback) {
+        firestore.collection("foods")
+                .get()
+                .addOnSuccessListener(foodSnapshots -> {
+                    List<DocumentReference> foodRefs = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : foodSnapshots) {
+                        foodRefs.add(document.getReference());
                     }
 
-                    final int[] totalSoldCount = {0};
-
-                    // For each completed order, check if it contains this food
-                    for (QueryDocumentSnapshot orderDoc : queryDocumentSnapshots) {
-                        String orderId = orderDoc.getId();
-                        
-                        firestore.collection("orders")
-                                .document(orderId)
-                                .collection("orderDetails")
-                                .whereEqualTo("foodId", foodId)
-                                .get()
-                                .addOnSuccessListener(detailSnapshots -> {
-                                    synchronized (totalSoldCount) {
-                                        for (QueryDocumentSnapshot detailDoc : detailSnapshots) {
-                                            OrderDetail detail = detailDoc.toObject(OrderDetail.class);
-                                            totalSoldCount[0] += detail.getQuantity();
-                                        }
-                                    }
-
-                                    synchronized (pendingOrders) {
-                                        pendingOrders[0]--;
-                                        if (pendingOrders[0] == 0) {
-                                            callback.onSuccess(totalSoldCount[0]);
-                                        }
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
-                                    synchronized (pendingOrders) {
-                                        pendingOrders[0]--;
-                                        if (pendingOrders[0] == 0) {
-                                            callback.onSuccess(totalSoldCount[0]);
-                                        }
-                                    }
-                                });
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (int i = 0; i < foodRefs.size(); i += MAX_BATCH_WRITES) {
+                        WriteBatch batch = firestore.batch();
+                        for (DocumentReference foodRef : foodRefs.subList(i, Math.min(i + MAX_BATCH_WRITES, foodRefs.size()))) {
+                            batch.update(foodRef, "soldCount", soldCounts.getOrDefault(foodRef.getId(), 0L),
+                                    "updatedAt", FieldValue.serverTimestamp());
+                        }
+                        commits.add(batch.commit());
                     }
+
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> callback.onSuccess())
+                            .addOnFailureListener(e -> callback.onError(e.getMessage()));
                 })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
     @Override
     public void getDailyRevenue(long startDate, long endDate, DataCallback<Map<String, Double>> callback) {
-        
+        queryDailyStats(startDate, endDate, new DataCallback<List<DailyStats>>() {
+            @Override
+            public void onSuccess(List<DailyStats> days) {
+                // Map to store date -> total revenue
+                Map<String, Double> dailyRevenueMap = new HashMap<>();
+                for (DailyStats day : days) {
+                    if (day.getRevenue() > 0) {
+                        dailyRevenueMap.put(day.getDateKey(), day.getRevenue());
+                    }
+                }
+                callback.onSuccess(dailyRevenueMap);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    @Override
+    public void backfillDailyStats(ActionCallback callback) {
         firestore.collection("orders")
-                .whereGreaterThanOrEqualTo("createdAt", startDate)
-                .whereLessThanOrEqualTo("createdAt", endDate)
-                .whereEqualTo("orderStatus", OrderStatus.COMPLETED.getVietnameseName())
+                .orderBy("createdAt", Query.Direction.ASCENDING)
+                .limit(1)
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    if (queryDocumentSnapshots.isEmpty()) {
+                        callback.onSuccess();
+                        return;
+                    }
+                    long firstOrderAt = queryDocumentSnapshots.getDocuments().get(0).getLong("createdAt");
+                    rebuildDailyStats(firstOrderAt, System.currentTimeMillis(), callback);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private void rebuildDailyStats(long startDate, long endDate, ActionCallback callback) {
+        // Rebuild whole days so that a partial range never overwrites a day with partial totals
+        long rangeStart = OrderAggregator.dayStart(startDate);
+        long rangeEnd = OrderAggregator.nextDayStart(endDate) - 1;
+
+        firestore.collection("orders")
+                .whereGreaterThanOrEqualTo("createdAt", rangeStart)
+                .whereLessThanOrEqualTo("createdAt", rangeEnd)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    // Map to store date -> total revenue
-                    Map<String, Double> dailyRevenueMap = new HashMap<>();
-                    java.text.SimpleDateFormat dateFormat = new java.text.SimpleDateFormat("yyyy-MM-dd", java.util.Locale.getDefault());
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                    // Start from an empty rollup for every day so stale days are reset too
+                    Map<String, DailyStats> rollups = new HashMap<>();
+                    for (long day = rangeStart; day <= rangeEnd; day = OrderAggregator.nextDayStart(day)) {
+                        rollups.put(OrderAggregator.dayKey(day), newDailyStats(day));
+                    }
+
+                    List<Order> completedOrders = new ArrayList<>();
+                    List<DocumentReference> uncountedOrders = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
                         Order order = document.toObject(Order.class);
-                        // Get date string from timestamp
-                        String dateKey = dateFormat.format(new java.util.Date(order.getCreatedAt()));
-                        // Add revenue to that date
-                        double currentRevenue = dailyRevenueMap.getOrDefault(dateKey, 0.0);
-                        dailyRevenueMap.put(dateKey, currentRevenue + order.getTotalAmount());
+                        order.setOrderId(document.getId());
+                        if (!order.isAggregated()) {
+                            uncountedOrders.add(document.getReference());
+                        }
+
+                        DailyStats day = rollups.get(OrderAggregator.dayKey(order.getCreatedAt()));
+                        if (day == null) continue;
+
+                        day.setOrderCount(day.getOrderCount() + 1);
+                        OrderStatus status = order.getStatus();
+                        if (status != null) {
+                            Map<String, Long> statusCounts = day.getStatusCounts();
+                            statusCounts.put(status.name(), statusCounts.getOrDefault(status.name(), 0L) + 1);
+                        }
+                        if (status == OrderStatus.COMPLETED) {
+                            day.setRevenue(day.getRevenue() + order.getTotalAmount());
+                            completedOrders.add(order);
+                        }
                     }
-                    callback.onSuccess(dailyRevenueMap);
+
+                    loadMissingItems(completedOrders, () -> {
+                        for (Order order : completedOrders) {
+                            DailyStats day = rollups.get(OrderAggregator.dayKey(order.getCreatedAt()));
+                            addQuantities(day.getItemQuantities(), order.getItems());
+                        }
+                        writeDailyStats(rollups, new ActionCallback() {
+                            @Override
+                            public void onSuccess() {
+                                markAggregated(uncountedOrders, callback);
+                            }
+
+                            @Override
+                            public void onError(String message) {
+                                callback.onError(message);
+                            }
+                        });
+                    });
                 })
-                .addOnFailureListener(e -> {
-                    callback.onError(e.getMessage());
-                });
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // One-off cost of a rebuild: orders without embedded items need their orderDetails read
+    private void loadMissingItems(List<Order> orders, Runnable onDone) {
+        List<Order> legacyOrders = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getItems() == null) {
+                legacyOrders.add(order);
+            }
+        }
+
+        if (legacyOrders.isEmpty()) {
+            onDone.run();
+            return;
+        }
+
+        int[] pendingOrders = {legacyOrders.size()};
+        for (Order order : legacyOrders) {
+            firestore.collection("orders")
+                    .document(order.getOrderId())
+                    .collection("orderDetails")
+                    .get()
+                    .addOnSuccessListener(detailSnapshots -> {
+                        List<OrderItem> lines = new ArrayList<>();
+                        for (QueryDocumentSnapshot detailDoc : detailSnapshots) {
+                            OrderDetail detail = detailDoc.toObject(OrderDetail.class);
+                            lines.add(new OrderItem(detail.getFoodId(), null,
+                                    detail.getUnitPrice(), detail.getQuantity(), null));
+                        }
+                        order.setItems(lines);
+
+                        pendingOrders[0]--;
+                        if (pendingOrders[0] == 0) {
+                            onDone.run();
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        pendingOrders[0]--;
+                        if (pendingOrders[0] == 0) {
+                            onDone.run();
+                        }
+                    });
+        }
+    }
+
+    private void addQuantities(Map<String, Long> totals, List<OrderItem> lines) {
+        if (lines == null) return;
+        for (Map.Entry<String, Long> entry : OrderAggregator.sumQuantities(lines).entrySet()) {
+            totals.put(entry.getKey(), totals.getOrDefault(entry.getKey(), 0L) + entry.getValue());
+        }
+    }
+
+    private void writeDailyStats(Map<String, DailyStats> rollups, ActionCallback callback) {
+        List<DailyStats> days = new ArrayList<>(rollups.values());
+        List<Task<Void>> commits = new ArrayList<>();
+
+        // Firestore batches are limited to 500 writes
+        for (int i = 0; i < days.size(); i += MAX_BATCH_WRITES) {
+            WriteBatch batch = firestore.batch();
+            for (DailyStats day : days.subList(i, Math.min(i + MAX_BATCH_WRITES, days.size()))) {
+                batch.set(firestore.collection(Constants.COLLECTION_DAILY_STATS).document(day.getDateKey()), day);
+            }
+            commits.add(batch.commit());
+        }
+
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    // From here on status changes move these orders between buckets instead of counting them again
+    private void markAggregated(List<DocumentReference> orderRefs, ActionCallback callback) {
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int i = 0; i < orderRefs.size(); i += MAX_BATCH_WRITES) {
+            WriteBatch batch = firestore.batch();
+            for (DocumentReference orderRef : orderRefs.subList(i, Math.min(i + MAX_BATCH_WRITES, orderRefs.size()))) {
+                batch.update(orderRef, "aggregated", true);
+            }
+            commits.add(batch.commit());
+        }
+
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> callback.onSuccess())
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private Query dailyStatsRange(long startDate, long endDate) {
+        return firestore.collection(Constants.COLLECTION_DAILY_STATS)
+                .whereGreaterThanOrEqualTo("dayStart", OrderAggregator.dayStart(startDate))
+                .whereLessThanOrEqualTo("dayStart", endDate);
+    }
+
+    // Sums over no matching documents come back as null rather than 0
+    private static Number aggregateValue(AggregateQuerySnapshot snapshot, AggregateField field) {
+        Object value = snapshot.get(field);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    private void queryDailyStats(long startDate, long endDate, DataCallback<List<DailyStats>> callback) {
+        dailyStatsRange(startDate, endDate)
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<DailyStats> days = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        DailyStats day = document.toObject(DailyStats.class);
+                        day.setDateKey(document.getId());
+                        days.add(day);
+                    }
+                    callback.onSuccess(days);
+                })
+                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+    }
+
+    private DailyStats newDailyStats(long dayStart) {
+        DailyStats day = new DailyStats();
+        day.setDateKey(OrderAggregator.dayKey(dayStart));
+        day.setDayStart(dayStart);
+        return day;
+    }
+
+    // Rollups are keyed by enum name; the dashboard shows the Vietnamese status
+    private String statusDisplayName(String statusKey) {
+        try {
+            return OrderStatus.valueOf(statusKey).getVietnameseName();
+        } catch (IllegalArgumentException e) {
+            return statusKey;
+        }
     }
 }
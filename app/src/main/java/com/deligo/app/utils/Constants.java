@@ -15,6 +15,13 @@ public class Constants {
     public static final String COLLECTION_ORDER_DETAILS = "orderDetails";
     public static final String COLLECTION_REVIEWS = "reviews";
     public static final String COLLECTION_COMPLAINTS = "complaints";
+    public static final String COLLECTION_DAILY_STATS = "dailyStats";
+    public static final String COLLECTION_PURCHASES = "purchases";
+    public static final String COLLECTION_META = "meta";
+
+    // meta/migrations: which one-off backfills have completed, for clients that depend on them
+    public static final String DOC_MIGRATIONS = "migrations";
+    public static final String MIGRATION_PURCHASES = "purchases";
     
     // User Roles
     public static final String ROLE_CUSTOMER = "customer";
@@ -29,12 +36,7 @@ public class Constants {
     public static final String PAYMENT_STATUS_COMPLETED = "Đã hoàn thành";
     public static final String PAYMENT_STATUS_FAILED = "Bị huỷ";
     
-    // Order Status
-    public static final String ORDER_STATUS_PENDING = "Chờ xác nhận";
-    public static final String ORDER_STATUS_ACCEPTED = "Đã nhận đơn";
-    public static final String ORDER_STATUS_PREPARING = "Đang chuẩn bị";
-    public static final String ORDER_STATUS_COMPLETED = "Đã hoàn thành";
-    public static final String ORDER_STATUS_CANCELLED = "Bị huỷ";
+    // Order status: see OrderStatus (stored as statusCode)
     
     // Complaint Status
     public static final String COMPLAINT_STATUS_PENDING = "pending";
@@ -0,0 +1,35 @@
+package com.deligo.app.utils;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asks for the next page when the user scrolls within a few rows of the end of a list.
+ */
+public class EndlessScrollListener extends RecyclerView.OnScrollListener {
+    private static final int VISIBLE_THRESHOLD = 5;
+
+    public interface OnLoadMoreListener {
+        void onLoadMore();
+    }
+
+    private final LinearLayoutManager layoutManager;
+    private final OnLoadMoreListener listener;
+
+    public EndlessScrollListener(LinearLayoutManager layoutManager, OnLoadMoreListener listener) {
+        this.layoutManager = layoutManager;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0) return;
+
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible >= layoutManager.getItemCount() - VISIBLE_THRESHOLD) {
+            // Callers ignore the request while a page is loading or when there are no more pages
+            listener.onLoadMore();
+        }
+    }
+}
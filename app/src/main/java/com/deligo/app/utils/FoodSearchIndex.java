@@ -0,0 +1,188 @@
+package com.deligo.app.utils;
+
+import com.deligo.app.models.Food;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over the menu. Text is folded to lowercase ASCII ("Phở" -> "pho"), split into
+ * tokens and kept in a sorted token map, so every query word is matched as a prefix with one
+ * range lookup. A food matches when all query words match; name hits weigh more than category
+ * hits, which weigh more than description hits, and best sellers get a small boost.
+ * Not thread-safe; used from the main thread by MenuViewModel.
+ */
+public class FoodSearchIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9]+");
+
+    private static final int WEIGHT_NAME = 3;
+    private static final int WEIGHT_CATEGORY = 2;
+    private static final int WEIGHT_DESCRIPTION = 1;
+
+    // token -> foodId -> best field weight of the token in that food
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    // foodId -> tokens it was indexed under, for removal on update
+    private final Map<String, Set<String>> indexedTokens = new HashMap<>();
+    // foodId -> text that produced the tokens, to skip re-indexing unchanged foods
+    private final Map<String, String> indexedText = new HashMap<>();
+    private final Map<String, Food> foods = new HashMap<>();
+    private Map<String, String> categoryNames = Collections.emptyMap();
+
+    /**
+     * Bring the index in line with the given menu: new and edited foods are (re)indexed,
+     * missing ones removed, unchanged ones only get their latest copy (sold count) swapped in.
+     */
+    public void setFoods(Collection<Food> menu) {
+        Set<String> seen = new HashSet<>();
+        for (Food food : menu) {
+            if (food.getFoodId() == null) continue;
+            seen.add(food.getFoodId());
+            foods.put(food.getFoodId(), food);
+            index(food);
+        }
+        for (String foodId : new ArrayList<>(foods.keySet())) {
+            if (!seen.contains(foodId)) {
+                unindex(foodId);
+                foods.remove(foodId);
+            }
+        }
+    }
+
+    /**
+     * Category names are searchable too; a rename re-indexes the foods in that category.
+     */
+    public void setCategoryNames(Map<String, String> namesById) {
+        categoryNames = new HashMap<>(namesById);
+        for (Food food : foods.values()) {
+            index(food);
+        }
+    }
+
+    /**
+     * Foods matching every word of the query, best match first. An empty query matches nothing.
+     */
+    public List<Food> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Double> scores = null;
+        for (String word : words) {
+            Map<String, Double> wordScores = new HashMap<>();
+            NavigableMap<String, Map<String, Integer>> matches = postings.subMap(word, true, word + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Map<String, Integer>> entry : matches.entrySet()) {
+                // A whole-word hit counts double a prefix hit
+                double factor = entry.getKey().equals(word) ? 2.0 : 1.0;
+                for (Map.Entry<String, Integer> posting : entry.getValue().entrySet()) {
+                    if (scores != null && !scores.containsKey(posting.getKey())) continue;
+                    double score = posting.getValue() * factor;
+                    Double current = wordScores.get(posting.getKey());
+                    if (current == null || score > current) {
+                        wordScores.put(posting.getKey(), score);
+                    }
+                }
+            }
+            if (scores != null) {
+                for (Map.Entry<String, Double> entry : wordScores.entrySet()) {
+                    entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                }
+            }
+            scores = wordScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        Map<String, Double> ranked = new HashMap<>();
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            Food food = foods.get(entry.getKey());
+            ranked.put(entry.getKey(), entry.getValue() * (1 + 0.1 * Math.log1p(Math.max(0, food.getSoldCount()))));
+        }
+        List<Food> results = new ArrayList<>();
+        for (String foodId : ranked.keySet()) {
+            results.add(foods.get(foodId));
+        }
+        results.sort((a, b) -> Double.compare(ranked.get(b.getFoodId()), ranked.get(a.getFoodId())));
+        return results;
+    }
+
+    private void index(Food food) {
+        String categoryName = categoryNames.get(food.getCategoryId());
+        String text = food.getName() + "\u0000" + categoryName + "\u0000" + food.getDescription();
+        if (text.equals(indexedText.get(food.getFoodId()))) {
+            return;
+        }
+        unindex(food.getFoodId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, food.getDescription(), WEIGHT_DESCRIPTION);
+        addTokens(weights, categoryName, WEIGHT_CATEGORY);
+        addTokens(weights, food.getName(), WEIGHT_NAME);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Map<String, Integer> posting = postings.get(entry.getKey());
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(entry.getKey(), posting);
+            }
+            posting.put(food.getFoodId(), entry.getValue());
+        }
+        indexedTokens.put(food.getFoodId(), weights.keySet());
+        indexedText.put(food.getFoodId(), text);
+    }
+
+    private void unindex(String foodId) {
+        Set<String> tokens = indexedTokens.remove(foodId);
+        indexedText.remove(foodId);
+        if (tokens == null) return;
+        for (String token : tokens) {
+            Map<String, Integer> posting = postings.get(token);
+            if (posting == null) continue;
+            posting.remove(foodId);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    // Later (heavier) fields overwrite lighter ones for the same token
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.put(token, weight);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : NON_WORD.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Lowercase and strip Vietnamese diacritics: "Bánh Mì Đặc Biệt" -> "banh mi dac biet".
+     */
+    public static String fold(String text) {
+        // đ/Đ is a separate letter, not d plus a combining mark
+        String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+}
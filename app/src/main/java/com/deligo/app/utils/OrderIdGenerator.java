@@ -0,0 +1,9 @@
+package com.deligo.app.utils;
+
+/**
+ * Source of order ids. Ids must be unique across every device placing orders,
+ * because an order document is written under its id.
+ */
+public interface OrderIdGenerator {
+    String nextId();
+}
@@ -0,0 +1,65 @@
+package com.deligo.app.utils;
+
+import android.content.Context;
+import android.graphics.Color;
+
+import com.deligo.app.R;
+import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.models.Order;
+
+/**
+ * Utility class for showing order statuses. Labels come from string resources,
+ * so the text stored on the order is never shown directly.
+ */
+public class OrderStatusUtils {
+
+    /**
+     * Get the localized label of an order's status
+     * @param context Context used to resolve the string resource
+     * @param order The order
+     * @return Label, or the stored text if the status is not recognised
+     */
+    public static String getLabel(Context context, Order order) {
+        OrderStatus status = order.getStatus();
+        if (status == null) {
+            return order.getOrderStatus() != null ? order.getOrderStatus() : "-";
+        }
+        return context.getString(getLabelRes(status));
+    }
+
+    public static int getLabelRes(OrderStatus status) {
+        switch (status) {
+            case PENDING:
+                return R.string.order_status_pending;
+            case ACCEPTED:
+                return R.string.order_status_accepted;
+            case PREPARING:
+                return R.string.order_status_preparing;
+            case COMPLETED:
+                return R.string.order_status_completed;
+            default:
+                return R.string.order_status_cancelled;
+        }
+    }
+
+    /**
+     * Get the text color for a status
+     * @param status Order status, may be null
+     * @return Color int
+     */
+    public static int getColor(OrderStatus status) {
+        if (status == null) return Color.parseColor("#757575"); // Gray
+
+        switch (status) {
+            case PENDING:
+                return Color.parseColor("#FF9800"); // Orange
+            case ACCEPTED:
+            case PREPARING:
+                return Color.parseColor("#2196F3"); // Blue
+            case COMPLETED:
+                return Color.parseColor("#4CAF50"); // Green
+            default:
+                return Color.parseColor("#F44336"); // Red
+        }
+    }
+}
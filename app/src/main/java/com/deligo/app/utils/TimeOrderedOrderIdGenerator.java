@@ -0,0 +1,121 @@
+package com.deligo.app.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.security.SecureRandom;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.function.LongSupplier;
+
+/**
+ * Order ids of the form DH + yyyyMMdd + "-" + time/sequence + node, e.g. DH20261017-2K5F8A1Q0C4XK9M2X7P3.
+ *
+ * The middle part packs the millisecond of the day with a 12-bit sequence, so one node can
+ * issue 4096 ids per millisecond; past that it borrows the next millisecond. The node part is
+ * a random id kept per install, which keeps ids from different devices apart: 12 base36
+ * characters (about 62 bits), so even millions of installs are unlikely to share one. Ids from
+ * one node sort by creation time within a day.
+ */
+public class TimeOrderedOrderIdGenerator implements OrderIdGenerator {
+    private static final String PREFS_NAME = "order_ids";
+    private static final String KEY_NODE_ID = "node_id";
+
+    static final int NODE_LENGTH = 12;
+    private static final int BODY_LENGTH = 8;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static TimeOrderedOrderIdGenerator instance;
+
+    private final String nodeId;
+    private final LongSupplier clock;
+    private final long zoneOffset;
+    private final SimpleDateFormat dateFormat;
+
+    private long lastMillis = -1;
+    private long sequence = 0;
+
+    public TimeOrderedOrderIdGenerator(String nodeId, LongSupplier clock, TimeZone timeZone) {
+        this.nodeId = nodeId;
+        this.clock = clock;
+        // Standard-time offset only: a DST change must never make a local time repeat
+        this.zoneOffset = timeZone.getRawOffset();
+        this.dateFormat = new SimpleDateFormat("yyyyMMdd", Locale.US);
+        this.dateFormat.setTimeZone(new SimpleTimeZone((int) zoneOffset, "order-ids"));
+    }
+
+    /**
+     * The generator for this install, with the node id created on first use and kept in SharedPreferences.
+     * One instance per process, so every caller shares the clock and sequence state.
+     */
+    public static synchronized TimeOrderedOrderIdGenerator forInstall(Context context) {
+        if (instance == null) {
+            SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            String nodeId = prefs.getString(KEY_NODE_ID, null);
+            // Installs from before the node was widened get a new, wider one
+            if (nodeId == null || nodeId.length() != NODE_LENGTH) {
+                nodeId = randomNodeId();
+                prefs.edit().putString(KEY_NODE_ID, nodeId).apply();
+            }
+            instance = new TimeOrderedOrderIdGenerator(nodeId, System::currentTimeMillis, TimeZone.getDefault());
+        }
+        return instance;
+    }
+
+    static String randomNodeId() {
+        SecureRandom random = new SecureRandom();
+        StringBuilder builder = new StringBuilder(NODE_LENGTH);
+        for (int i = 0; i < NODE_LENGTH; i++) {
+            builder.append(Character.forDigit(random.nextInt(36), 36));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String nextId() {
+        long millis;
+        long seq;
+        synchronized (this) {
+            // Never go backwards, even if the device clock does
+            long now = Math.max(clock.getAsLong(), lastMillis);
+            if (now == lastMillis) {
+                sequence++;
+                if (sequence > MAX_SEQUENCE) {
+                    now++;
+                    sequence = 0;
+                }
+            } else {
+                sequence = 0;
+            }
+            lastMillis = now;
+            millis = now;
+            seq = sequence;
+        }
+        return format(millis, seq);
+    }
+
+    private String format(long millis, long seq) {
+        long local = millis + zoneOffset;
+        long millisOfDay = Math.floorMod(local, DAY_MS);
+        String body = pad(Long.toString((millisOfDay << SEQUENCE_BITS) | seq, 36), BODY_LENGTH);
+
+        String date;
+        synchronized (dateFormat) {
+            date = dateFormat.format(new Date(millis));
+        }
+        return ("DH" + date + "-" + body + nodeId).toUpperCase(Locale.US);
+    }
+
+    private static String pad(String value, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = value.length(); i < length; i++) {
+            builder.append('0');
+        }
+        return builder.append(value).toString();
+    }
+}
@@ -20,6 +20,7 @@ import com.deligo.app.repositories.ReviewRepository;
 import com.deligo.app.repositories.ReviewRepositoryImpl;
 import com.deligo.app.repositories.ComplaintRepository;
 import com.deligo.app.repositories.ComplaintRepositoryImpl;
+import com.deligo.app.repositories.FoodCatalog;
 import com.deligo.app.repositories.AdminFoodRepository;
 import com.deligo.app.repositories.AdminFoodRepositoryImpl;
 import com.deligo.app.repositories.AdminCategoryRepository;
@@ -85,7 +86,7 @@ public class ViewModelFactory implements ViewModelProvider.Factory {
         if (modelClass.isAssignableFrom(AuthViewModel.class)) {
             return (T) new AuthViewModel(authRepository);
         } else if (modelClass.isAssignableFrom(MenuViewModel.class)) {
-            return (T) new MenuViewModel(foodRepository, categoryRepository);
+            return (T) new MenuViewModel(FoodCatalog.getInstance(), categoryRepository);
         } else if (modelClass.isAssignableFrom(CartViewModel.class)) {
             return (T) new CartViewModel(cartRepository);
         } else if (modelClass.isAssignableFrom(OrderViewModel.class)) {
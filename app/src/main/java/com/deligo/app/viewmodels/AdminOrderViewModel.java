@@ -5,18 +5,17 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.constants.PaymentStatus;
+import com.deligo.app.models.BulkStatusResult;
 import com.deligo.app.models.Order;
 import com.deligo.app.models.OrderDetail;
+import com.deligo.app.models.OrderPage;
 import com.deligo.app.repositories.OrderRepository;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
-import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 public class AdminOrderViewModel extends ViewModel {
     private final MutableLiveData<List<Order>> orders = new MutableLiveData<>();
@@ -25,27 +24,27 @@ public class AdminOrderViewModel extends ViewModel {
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<Boolean> actionSuccess = new MutableLiveData<>(false);
+    private final MutableLiveData<BulkStatusResult> bulkResult = new MutableLiveData<>();
+    // Current state of an order another admin changed first; the screen shows its status label
+    private final MutableLiveData<Order> conflictOrder = new MutableLiveData<>();
 
     private final OrderRepository orderRepository;
-    private final FirebaseFirestore firestore;
-    private ListenerRegistration ordersListener;
-
-    // Valid status transitions (Vietnamese)
-    private static final Map<String, List<String>> VALID_TRANSITIONS = new HashMap<>();
-    static {
-        VALID_TRANSITIONS.put(OrderStatus.PENDING.getVietnameseName(), 
-            Arrays.asList(OrderStatus.ACCEPTED.getVietnameseName(), OrderStatus.CANCELLED.getVietnameseName()));
-        VALID_TRANSITIONS.put(OrderStatus.ACCEPTED.getVietnameseName(), 
-            Arrays.asList(OrderStatus.PREPARING.getVietnameseName(), OrderStatus.CANCELLED.getVietnameseName()));
-        VALID_TRANSITIONS.put(OrderStatus.PREPARING.getVietnameseName(), 
-            Arrays.asList(OrderStatus.COMPLETED.getVietnameseName(), OrderStatus.CANCELLED.getVietnameseName()));
-        VALID_TRANSITIONS.put(OrderStatus.COMPLETED.getVietnameseName(), new ArrayList<>());
-        VALID_TRANSITIONS.put(OrderStatus.CANCELLED.getVietnameseName(), new ArrayList<>());
-    }
+
+    // Every order loaded so far, newest first. Live changes and older pages are merged in place;
+    // orders that slide out of the live page stay, so the history never has a gap
+    private static final int ORDER_PAGE_SIZE = 30;
+    private static final Comparator<Order> NEWEST_FIRST = (a, b) -> {
+        int byTime = Long.compare(b.getCreatedAt(), a.getCreatedAt());
+        return byTime != 0 ? byTime : b.getOrderId().compareTo(a.getOrderId());
+    };
+    private final List<Order> loadedOrders = new ArrayList<>();
+    private boolean hasMoreOrders;
+    private boolean loadingMoreOrders;
+    private boolean feedActive;
+    private boolean receivedFirstSnapshot;
 
     public AdminOrderViewModel(OrderRepository orderRepository) {
         this.orderRepository = orderRepository;
-        this.firestore = FirebaseFirestore.getInstance();
     }
 
     public LiveData<List<Order>> getOrders() {
@@ -72,64 +71,131 @@ public class AdminOrderViewModel extends ViewModel {
         return actionSuccess;
     }
 
+    public LiveData<BulkStatusResult> getBulkResult() {
+        return bulkResult;
+    }
+
+    public LiveData<Order> getConflictOrder() {
+        return conflictOrder;
+    }
+
     public void loadAllOrders() {
-        // Remove existing listener if any
-        if (ordersListener != null) {
-            ordersListener.remove();
+        // The live feed keeps the list current, so there is nothing to re-query while it runs
+        if (feedActive) {
+            return;
         }
 
+        loadedOrders.clear();
+        // A live snapshot can come from the cache and hold fewer orders than exist, so only
+        // an older page that comes back short says the history has ended
+        hasMoreOrders = true;
+        loadingMoreOrders = false;
+        receivedFirstSnapshot = false;
+        feedActive = true;
         isLoading.setValue(true);
 
-        // Set up real-time listener
-        ordersListener = firestore.collection("orders")
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .addSnapshotListener((queryDocumentSnapshots, error) -> {
-                    if (error != null) {
-                        errorMessage.setValue(error.getMessage());
-                        isLoading.setValue(false);
-                        return;
-                    }
+        // Real-time feed on the newest page only; older pages are fetched on scroll
+        orderRepository.listenToRecentOrders(ORDER_PAGE_SIZE, new OrderRepository.OrderFeedListener() {
+            @Override
+            public void onOrdersChanged(List<Order> changedOrders) {
+                if (!receivedFirstSnapshot) {
+                    receivedFirstSnapshot = true;
+                    isLoading.setValue(false);
+                }
+                if (changedOrders.isEmpty()) {
+                    return;
+                }
+                for (Order order : changedOrders) {
+                    upsertOrder(order, true);
+                }
+                orders.setValue(new ArrayList<>(loadedOrders));
+            }
 
-                    if (queryDocumentSnapshots != null) {
-                        List<Order> orderList = new ArrayList<>();
-                        queryDocumentSnapshots.forEach(document -> {
-                            Order order = document.toObject(Order.class);
-                            order.setOrderId(document.getId());
-                            orderList.add(order);
-                        });
-                        orders.setValue(orderList);
-                        isLoading.setValue(false);
-                    }
-                });
+            @Override
+            public void onError(String message) {
+                feedActive = false;
+                orderRepository.removeRecentOrdersListener();
+                errorMessage.setValue(message);
+                isLoading.setValue(false);
+            }
+        });
     }
 
-    public void acceptOrder(String orderId) {
-        isLoading.setValue(true);
-        
-        // First get the order to check current status
-        orderRepository.getOrderById(orderId, new OrderRepository.DataCallback<Order>() {
+    public void loadMoreOrders() {
+        if (!hasMoreOrders || loadingMoreOrders || loadedOrders.isEmpty()) {
+            return;
+        }
+
+        loadingMoreOrders = true;
+        orderRepository.getAllOrders(loadedOrders.get(loadedOrders.size() - 1), ORDER_PAGE_SIZE,
+                new OrderRepository.DataCallback<OrderPage>() {
             @Override
-            public void onSuccess(Order order) {
-                if (!OrderStatus.PENDING.matches(order.getOrderStatus())) {
-                    errorMessage.setValue("Chỉ có thể chấp nhận đơn hàng đang chờ xác nhận");
-                    isLoading.setValue(false);
-                    return;
+            public void onSuccess(OrderPage page) {
+                loadingMoreOrders = false;
+                hasMoreOrders = page.hasMore();
+                for (Order order : page.getOrders()) {
+                    upsertOrder(order, false);
                 }
+                orders.setValue(new ArrayList<>(loadedOrders));
+            }
 
-                // Update status to accepted
-                orderRepository.updateOrderStatus(orderId, OrderStatus.ACCEPTED.getVietnameseName(), new OrderRepository.ActionCallback() {
-                    @Override
-                    public void onSuccess() {
-                        actionSuccess.setValue(true);
-                        isLoading.setValue(false);
-                    }
+            @Override
+            public void onError(String message) {
+                loadingMoreOrders = false;
+                errorMessage.setValue(message);
+            }
+        });
+    }
 
-                    @Override
-                    public void onError(String message) {
-                        errorMessage.setValue(message);
-                        isLoading.setValue(false);
-                    }
-                });
+    // Insert into the newest-first list, or replace the copy already there. Snapshots and write
+    // results can arrive out of order, so a copy older (lower version) than the one held is ignored.
+    private void upsertOrder(Order order, boolean replaceExisting) {
+        int index = Collections.binarySearch(loadedOrders, order, NEWEST_FIRST);
+        if (index >= 0) {
+            if (replaceExisting && order.getVersion() >= loadedOrders.get(index).getVersion()) {
+                loadedOrders.set(index, order);
+            }
+        } else {
+            loadedOrders.add(-(index + 1), order);
+        }
+    }
+
+    public void acceptOrder(Order order) {
+        if (order.getStatus() != OrderStatus.PENDING) {
+            errorMessage.setValue("Chỉ có thể chấp nhận đơn hàng đang chờ xác nhận");
+            return;
+        }
+        updateOrderStatus(order, OrderStatus.ACCEPTED);
+    }
+
+    // One transaction per action: the order must still be in the status shown to the admin
+    public void updateOrderStatus(Order order, OrderStatus newStatus) {
+        OrderStatus currentStatus = order.getStatus();
+
+        // Validate status transition
+        if (!isValidTransition(currentStatus, newStatus)) {
+            errorMessage.setValue("Invalid status transition from " + order.getOrderStatus() + " to " + newStatus);
+            return;
+        }
+
+        isLoading.setValue(true);
+        // Cancelling also cancels the payment
+        String paymentStatus = newStatus == OrderStatus.CANCELLED ? PaymentStatus.CANCELLED.getVietnameseName() : null;
+        orderRepository.transitionOrderStatus(order.getOrderId(), currentStatus, newStatus, paymentStatus,
+                new OrderRepository.TransitionCallback() {
+            @Override
+            public void onSuccess(Order updatedOrder) {
+                applyOrderChange(updatedOrder);
+                actionSuccess.setValue(true);
+                isLoading.setValue(false);
+            }
+
+            @Override
+            public void onConflict(Order currentOrder) {
+                // Show what the other admin did instead of overwriting it
+                applyOrderChange(currentOrder);
+                conflictOrder.setValue(currentOrder);
+                isLoading.setValue(false);
             }
 
             @Override
@@ -140,52 +206,38 @@ public class AdminOrderViewModel extends ViewModel {
         });
     }
 
-    public void updateOrderStatus(String orderId, String newStatus) {
+    // Put the latest copy of an order wherever this ViewModel shows it
+    private void applyOrderChange(Order order) {
+        Order selected = selectedOrder.getValue();
+        if (selected != null && order.getOrderId().equals(selected.getOrderId())
+                && order.getVersion() >= selected.getVersion()) {
+            selectedOrder.setValue(order);
+        }
+        if (feedActive) {
+            upsertOrder(order, true);
+            orders.setValue(new ArrayList<>(loadedOrders));
+        }
+    }
+
+    public void updateOrderStatuses(List<String> orderIds, OrderStatus newStatus) {
+        if (orderIds.isEmpty()) return;
         isLoading.setValue(true);
 
-        // First get the order to validate transition
-        orderRepository.getOrderById(orderId, new OrderRepository.DataCallback<Order>() {
+        // Cancelling also cancels the payment, as for a single order
+        String paymentStatus = newStatus == OrderStatus.CANCELLED ? PaymentStatus.CANCELLED.getVietnameseName() : null;
+        orderRepository.updateOrderStatuses(orderIds, newStatus, paymentStatus,
+                new OrderRepository.DataCallback<BulkStatusResult>() {
             @Override
-            public void onSuccess(Order order) {
-                String currentStatus = order.getOrderStatus();
-
-                // Validate status transition
-                if (!isValidTransition(currentStatus, newStatus)) {
-                    errorMessage.setValue("Invalid status transition from " + currentStatus + " to " + newStatus);
-                    isLoading.setValue(false);
-                    return;
+            public void onSuccess(BulkStatusResult result) {
+                // Apply in place; the live feed later confirms the same values
+                for (Order order : result.getUpdatedOrders()) {
+                    upsertOrder(order, true);
                 }
-
-                // Update status - if cancelling, also update payment status to cancelled
-                if (OrderStatus.CANCELLED.matches(newStatus)) {
-                    orderRepository.updateOrderAndPaymentStatus(orderId, newStatus, OrderStatus.CANCELLED.getVietnameseName(), new OrderRepository.ActionCallback() {
-                        @Override
-                        public void onSuccess() {
-                            actionSuccess.setValue(true);
-                            isLoading.setValue(false);
-                        }
-
-                        @Override
-                        public void onError(String message) {
-                            errorMessage.setValue(message);
-                            isLoading.setValue(false);
-                        }
-                    });
-                } else {
-                    orderRepository.updateOrderStatus(orderId, newStatus, new OrderRepository.ActionCallback() {
-                        @Override
-                        public void onSuccess() {
-                            actionSuccess.setValue(true);
-                            isLoading.setValue(false);
-                        }
-
-                        @Override
-                        public void onError(String message) {
-                            errorMessage.setValue(message);
-                            isLoading.setValue(false);
-                        }
-                    });
+                if (!result.getUpdatedOrders().isEmpty()) {
+                    orders.setValue(new ArrayList<>(loadedOrders));
                 }
+                isLoading.setValue(false);
+                bulkResult.setValue(result);
             }
 
             @Override
@@ -196,6 +248,14 @@ public class AdminOrderViewModel extends ViewModel {
         });
     }
 
+    public void resetBulkResult() {
+        bulkResult.setValue(null);
+    }
+
+    public void resetConflictOrder() {
+        conflictOrder.setValue(null);
+    }
+
     public void loadOrderDetails(String orderId) {
         isLoading.setValue(true);
 
@@ -205,8 +265,8 @@ public class AdminOrderViewModel extends ViewModel {
             public void onSuccess(Order order) {
                 selectedOrder.setValue(order);
 
-                // Load order details
-                orderRepository.getOrderDetails(orderId, new OrderRepository.DataCallback<List<OrderDetail>>() {
+                // Load order details (embedded in the order we already have)
+                orderRepository.getOrderDetails(order, new OrderRepository.DataCallback<List<OrderDetail>>() {
                     @Override
                     public void onSuccess(List<OrderDetail> details) {
                         orderDetails.setValue(details);
@@ -235,6 +295,11 @@ public class AdminOrderViewModel extends ViewModel {
         orderRepository.updatePaymentStatus(orderId, newPaymentStatus, new OrderRepository.ActionCallback() {
             @Override
             public void onSuccess() {
+                Order selected = selectedOrder.getValue();
+                if (selected != null && orderId.equals(selected.getOrderId())) {
+                    selected.setPaymentStatus(newPaymentStatus);
+                    selectedOrder.setValue(selected);
+                }
                 actionSuccess.setValue(true);
                 isLoading.setValue(false);
             }
@@ -247,9 +312,8 @@ public class AdminOrderViewModel extends ViewModel {
         });
     }
 
-    private boolean isValidTransition(String currentStatus, String newStatus) {
-        List<String> validNextStatuses = VALID_TRANSITIONS.get(currentStatus);
-        return validNextStatuses != null && validNextStatuses.contains(newStatus);
+    private boolean isValidTransition(OrderStatus currentStatus, OrderStatus newStatus) {
+        return currentStatus != null && newStatus != null && currentStatus.canTransitionTo(newStatus);
     }
 
     public void resetActionSuccess() {
@@ -260,8 +324,6 @@ public class AdminOrderViewModel extends ViewModel {
     protected void onCleared() {
         super.onCleared();
         // Remove listener when ViewModel is cleared
-        if (ordersListener != null) {
-            ordersListener.remove();
-        }
+        orderRepository.removeRecentOrdersListener();
     }
 }
@@ -1,15 +1,22 @@
 package com.deligo.app.viewmodels;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.deligo.app.models.CartItem;
+import com.deligo.app.models.Food;
 import com.deligo.app.repositories.CartRepository;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CartViewModel extends ViewModel {
     private final MutableLiveData<List<CartItem>> cartItems = new MutableLiveData<>();
@@ -21,6 +28,12 @@ public class CartViewModel extends ViewModel {
     private final CartRepository cartRepository;
     private final FirebaseAuth firebaseAuth;
 
+    // Write-behind state for quantity edits: latest edit per cart item and its pending write
+    private static final long WRITE_DELAY_MS = 600;
+    private final Handler writeHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, CartItem> pendingEdits = new HashMap<>();
+    private final Map<String, Runnable> scheduledWrites = new HashMap<>();
+
     public CartViewModel(CartRepository cartRepository) {
         this.cartRepository = cartRepository;
         this.firebaseAuth = FirebaseAuth.getInstance();
@@ -53,6 +66,12 @@ public class CartViewModel extends ViewModel {
             return;
         }
 
+        // Reading the server cart while edits are queued would undo them on screen
+        if (!pendingEdits.isEmpty()) {
+            flushPendingChanges(this::loadCart);
+            return;
+        }
+
         isLoading.setValue(true);
         String userId = currentUser.getUid();
         
@@ -72,7 +91,7 @@ public class CartViewModel extends ViewModel {
         });
     }
 
-    public void addToCart(String foodId, int quantity, String note) {
+    public void addToCart(Food food, int quantity, String note) {
         FirebaseUser currentUser = firebaseAuth.getCurrentUser();
         if (currentUser == null) {
             errorMessage.setValue("User not authenticated");
@@ -82,7 +101,7 @@ public class CartViewModel extends ViewModel {
         isLoading.setValue(true);
         String userId = currentUser.getUid();
         
-        cartRepository.addToCart(userId, foodId, quantity, note, new CartRepository.ActionCallback() {
+        cartRepository.addToCart(userId, food, quantity, note, new CartRepository.ActionCallback() {
             @Override
             public void onSuccess() {
                 successMessage.setValue("Item added to cart");
@@ -98,46 +117,153 @@ public class CartViewModel extends ViewModel {
         });
     }
 
-    public void updateQuantity(String cartItemId, int quantity) {
+    public void updateQuantity(CartItem cartItem, int quantity) {
         if (quantity <= 0) {
-            removeItem(cartItemId);
+            removeItem(cartItem);
             return;
         }
 
-        isLoading.setValue(true);
-        
-        cartRepository.updateCartItem(cartItemId, quantity, new CartRepository.ActionCallback() {
-            @Override
-            public void onSuccess() {
-                isLoading.setValue(false);
-                loadCart(); // Reload cart to update UI
+        // Apply locally right away; the write goes out once the user stops tapping
+        applyLocalQuantity(cartItem, quantity);
+        scheduleWrite(cartItem);
+    }
+
+    public void removeItem(CartItem cartItem) {
+        applyLocalQuantity(cartItem, 0);
+        scheduleWrite(cartItem);
+        successMessage.setValue("Item removed from cart");
+    }
+
+    /**
+     * Write any edits still waiting for their quiet period, then run onComplete.
+     * Called before checkout so the server cart matches what the user saw. If a write fails,
+     * onComplete is not run and the cart is reloaded from the server instead.
+     */
+    public void flushPendingChanges(Runnable onComplete) {
+        for (Runnable write : scheduledWrites.values()) {
+            writeHandler.removeCallbacks(write);
+        }
+        scheduledWrites.clear();
+
+        List<CartItem> edits = new ArrayList<>(pendingEdits.values());
+        pendingEdits.clear();
+        if (edits.isEmpty()) {
+            if (onComplete != null) onComplete.run();
+            return;
+        }
+
+        int[] pendingWrites = {edits.size()};
+        boolean[] failed = {false};
+        for (CartItem edit : edits) {
+            writeItem(edit, new CartRepository.ActionCallback() {
+                @Override
+                public void onSuccess() {
+                    onWriteDone();
+                }
+
+                @Override
+                public void onError(String message) {
+                    failed[0] = true;
+                    onWriteDone();
+                }
+
+                private void onWriteDone() {
+                    pendingWrites[0]--;
+                    if (pendingWrites[0] > 0 || onComplete == null) {
+                        return;
+                    }
+                    if (failed[0]) {
+                        // The server cart no longer matches the screen: show it rather than check out
+                        loadCart();
+                    } else {
+                        onComplete.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private void applyLocalQuantity(CartItem cartItem, int quantity) {
+        List<CartItem> current = cartItems.getValue();
+        if (current == null) return;
+
+        List<CartItem> updated = new ArrayList<>(current);
+        boolean found = false;
+        int oldQuantity = 0;
+        for (int i = 0; i < updated.size(); i++) {
+            CartItem item = updated.get(i);
+            if (item.getCartItemId().equals(cartItem.getCartItemId())) {
+                found = true;
+                oldQuantity = item.getQuantity();
+                if (quantity > 0) {
+                    // Replace rather than mutate, so observers see a changed item
+                    CartItem changed = new CartItem(item.getCartItemId(), item.getCartId(), item.getFoodId(),
+                            quantity, item.getPrice(), item.getNote());
+                    changed.setFood(item.getFood());
+                    updated.set(i, changed);
+                } else {
+                    updated.remove(i);
+                }
+                break;
             }
+        }
+        cartItems.setValue(updated);
 
-            @Override
-            public void onError(String message) {
-                errorMessage.setValue(message);
-                isLoading.setValue(false);
+        // Adjust the total by the difference instead of re-reading the cart; a row that is no
+        // longer listed isn't part of the total
+        if (found) {
+            Double total = cartTotal.getValue();
+            double newTotal = (total != null ? total : 0.0) + cartItem.getPrice() * (quantity - oldQuantity);
+            cartTotal.setValue(Math.max(0.0, newTotal));
+        }
+
+        CartItem edit = new CartItem(cartItem.getCartItemId(), cartItem.getCartId(), cartItem.getFoodId(),
+                quantity, cartItem.getPrice(), cartItem.getNote());
+        pendingEdits.put(cartItem.getCartItemId(), edit);
+    }
+
+    // Restart the item's quiet period so a burst of taps becomes one write
+    private void scheduleWrite(CartItem cartItem) {
+        String cartItemId = cartItem.getCartItemId();
+        Runnable previous = scheduledWrites.remove(cartItemId);
+        if (previous != null) {
+            writeHandler.removeCallbacks(previous);
+        }
+
+        Runnable write = () -> {
+            scheduledWrites.remove(cartItemId);
+            CartItem edit = pendingEdits.remove(cartItemId);
+            if (edit != null) {
+                writeItem(edit, null);
             }
-        });
+        };
+        scheduledWrites.put(cartItemId, write);
+        writeHandler.postDelayed(write, WRITE_DELAY_MS);
     }
 
-    public void removeItem(String cartItemId) {
-        isLoading.setValue(true);
-        
-        cartRepository.removeCartItem(cartItemId, new CartRepository.ActionCallback() {
+    private void writeItem(CartItem edit, CartRepository.ActionCallback onDone) {
+        CartRepository.ActionCallback callback = new CartRepository.ActionCallback() {
             @Override
             public void onSuccess() {
-                successMessage.setValue("Item removed from cart");
-                isLoading.setValue(false);
-                loadCart(); // Reload cart to update UI
+                if (onDone != null) onDone.onSuccess();
             }
 
             @Override
             public void onError(String message) {
                 errorMessage.setValue(message);
-                isLoading.setValue(false);
+                if (onDone != null) {
+                    onDone.onError(message);
+                } else {
+                    loadCart(); // Resync with the server copy
+                }
             }
-        });
+        };
+
+        if (edit.getQuantity() > 0) {
+            cartRepository.updateCartItem(edit.getCartId(), edit.getCartItemId(), edit.getQuantity(), callback);
+        } else {
+            cartRepository.removeCartItem(edit.getCartId(), edit.getCartItemId(), callback);
+        }
     }
 
     public void clearCart() {
@@ -175,4 +301,11 @@ public class CartViewModel extends ViewModel {
         }
         cartTotal.setValue(total);
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // Don't drop edits made just before leaving the cart
+        flushPendingChanges(null);
+    }
 }
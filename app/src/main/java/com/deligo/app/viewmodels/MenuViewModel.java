@@ -1,5 +1,7 @@
 package com.deligo.app.viewmodels;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
@@ -9,24 +11,63 @@ import androidx.lifecycle.ViewModel;
 import com.deligo.app.models.Category;
 import com.deligo.app.models.Food;
 import com.deligo.app.repositories.CategoryRepository;
-import com.deligo.app.repositories.FoodRepository;
+import com.deligo.app.repositories.FoodCatalog;
+import com.deligo.app.utils.FoodSearchIndex;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class MenuViewModel extends ViewModel {
     private static final String TAG = "MenuViewModel";
     private final MutableLiveData<List<Food>> foodList = new MutableLiveData<>();
     private final MutableLiveData<List<Category>> categories = new MutableLiveData<>();
     private final MutableLiveData<String> selectedCategory = new MutableLiveData<>();
+    private final MutableLiveData<Map<String, Integer>> categoryCounts = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     
-    private final FoodRepository foodRepository;
+    private final FoodCatalog foodCatalog;
     private final CategoryRepository categoryRepository;
+    private List<Food> allFoods = new ArrayList<>();
+    // categoryId -> foods in catalog order, rebuilt only when the catalog changes
+    private Map<String, List<Food>> categoryBuckets = new HashMap<>();
+    private String searchQuery = "";
+
+    // Typing is debounced; only the query still current when the timer fires is run
+    private static final long SEARCH_DELAY_MS = 150;
+    private final FoodSearchIndex searchIndex = new FoodSearchIndex();
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable runSearch = this::applyFilters;
+
+    private final FoodCatalog.Listener catalogListener = new FoodCatalog.Listener() {
+        @Override
+        public void onFoodsChanged(List<Food> foods) {
+            Log.d(TAG, "onFoodsChanged: " + foods.size() + " foods");
+            allFoods = foods;
+            rebuildCategoryBuckets(foods);
+            searchIndex.setFoods(foods);
+            applyFilters();
+            isLoading.setValue(false);
+        }
+
+        @Override
+        public void onError(String message) {
+            Log.e(TAG, "onError: Catalog sync failed - " + message);
+            isLoading.setValue(false);
+            // Keep showing the local menu; only report the error when there is nothing to show
+            if (allFoods.isEmpty()) {
+                errorMessage.setValue(message);
+            }
+        }
+    };
 
-    public MenuViewModel(FoodRepository foodRepository, CategoryRepository categoryRepository) {
-        this.foodRepository = foodRepository;
+    public MenuViewModel(FoodCatalog foodCatalog, CategoryRepository categoryRepository) {
+        this.foodCatalog = foodCatalog;
         this.categoryRepository = categoryRepository;
+        foodCatalog.addListener(catalogListener);
     }
 
     public LiveData<List<Food>> getFoodList() {
@@ -41,6 +82,11 @@ public class MenuViewModel extends ViewModel {
         return selectedCategory;
     }
 
+    // Number of foods per categoryId, for the chip labels
+    public LiveData<Map<String, Integer>> getCategoryCounts() {
+        return categoryCounts;
+    }
+
     public LiveData<Boolean> getIsLoading() {
         return isLoading;
     }
@@ -49,24 +95,19 @@ public class MenuViewModel extends ViewModel {
         return errorMessage;
     }
 
+    /**
+     * Show the local menu right away and sync it with the server in the background.
+     */
     public void loadFoods() {
-        Log.d(TAG, "loadFoods: Starting to load foods");
-        isLoading.setValue(true);
-        foodRepository.getAvailableFoods(new FoodRepository.DataCallback<List<Food>>() {
-            @Override
-            public void onSuccess(List<Food> data) {
-                Log.d(TAG, "loadFoods: Success - received " + (data != null ? data.size() : 0) + " foods");
-                foodList.setValue(data);
-                isLoading.setValue(false);
-            }
+        Log.d(TAG, "loadFoods: Syncing food catalog");
+        boolean pending = foodCatalog.sync(false);
+        // The spinner only shows while there is nothing local to display
+        isLoading.setValue(pending && allFoods.isEmpty());
+    }
 
-            @Override
-            public void onError(String message) {
-                Log.e(TAG, "loadFoods: Error - " + message);
-                errorMessage.setValue(message);
-                isLoading.setValue(false);
-            }
-        });
+    // Retry after an error: skip the sync interval
+    public void refreshFoods() {
+        isLoading.setValue(foodCatalog.sync(true));
     }
 
     public void loadCategories() {
@@ -76,6 +117,13 @@ public class MenuViewModel extends ViewModel {
             public void onSuccess(List<Category> data) {
                 Log.d(TAG, "loadCategories: Success - received " + (data != null ? data.size() : 0) + " categories");
                 categories.setValue(data);
+                if (data != null) {
+                    Map<String, String> names = new HashMap<>();
+                    for (Category category : data) {
+                        names.put(category.getCategoryId(), category.getCategoryName());
+                    }
+                    searchIndex.setCategoryNames(names);
+                }
             }
 
             @Override
@@ -87,49 +135,72 @@ public class MenuViewModel extends ViewModel {
     }
 
     public void filterByCategory(String categoryId) {
-        isLoading.setValue(true);
-        selectedCategory.setValue(categoryId);
-        
-        if (categoryId == null || categoryId.isEmpty()) {
-            loadFoods();
+        if (Objects.equals(categoryId, selectedCategory.getValue())) {
             return;
         }
-        
-        foodRepository.getFoodsByCategory(categoryId, new FoodRepository.DataCallback<List<Food>>() {
-            @Override
-            public void onSuccess(List<Food> data) {
-                foodList.setValue(data);
-                isLoading.setValue(false);
-            }
+        selectedCategory.setValue(categoryId);
+        applyFilters();
+    }
 
-            @Override
-            public void onError(String message) {
-                errorMessage.setValue(message);
-                isLoading.setValue(false);
+    private void rebuildCategoryBuckets(List<Food> foods) {
+        Map<String, List<Food>> buckets = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Food food : foods) {
+            List<Food> bucket = buckets.get(food.getCategoryId());
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets.put(food.getCategoryId(), bucket);
             }
-        });
+            bucket.add(food);
+        }
+        for (Map.Entry<String, List<Food>> entry : buckets.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        categoryBuckets = buckets;
+        categoryCounts.setValue(counts);
     }
 
+    /**
+     * Search as the user types. Each call restarts the debounce timer, so a burst of
+     * keystrokes runs one search for the last query.
+     */
     public void searchFoods(String query) {
-        isLoading.setValue(true);
-        
-        if (query == null || query.trim().isEmpty()) {
-            loadFoods();
+        searchQuery = query != null ? query.trim() : "";
+        searchHandler.removeCallbacks(runSearch);
+        searchHandler.postDelayed(runSearch, SEARCH_DELAY_MS);
+    }
+
+    // Submit and clear don't wait for the debounce
+    public void searchFoodsNow(String query) {
+        searchQuery = query != null ? query.trim() : "";
+        searchHandler.removeCallbacks(runSearch);
+        applyFilters();
+    }
+
+    // Category and search are applied to the local catalog, no query per filter
+    private void applyFilters() {
+        String categoryId = selectedCategory.getValue();
+        boolean allCategories = categoryId == null || categoryId.isEmpty();
+        if (searchQuery.isEmpty()) {
+            // Plain category switch: hand out the precomputed bucket
+            List<Food> bucket = allCategories ? allFoods : categoryBuckets.get(categoryId);
+            foodList.setValue(bucket != null ? bucket : new ArrayList<>());
             return;
         }
-        
-        foodRepository.searchFoodsByName(query, new FoodRepository.DataCallback<List<Food>>() {
-            @Override
-            public void onSuccess(List<Food> data) {
-                foodList.setValue(data);
-                isLoading.setValue(false);
-            }
 
-            @Override
-            public void onError(String message) {
-                errorMessage.setValue(message);
-                isLoading.setValue(false);
+        // Search results come ranked, narrowed to the selected category
+        List<Food> filtered = new ArrayList<>();
+        for (Food food : searchIndex.search(searchQuery)) {
+            if (allCategories || categoryId.equals(food.getCategoryId())) {
+                filtered.add(food);
             }
-        });
+        }
+        foodList.setValue(filtered);
+    }
+
+    @Override
+    protected void onCleared() {
+        searchHandler.removeCallbacks(runSearch);
+        foodCatalog.removeListener(catalogListener);
     }
 }
@@ -4,13 +4,17 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.deligo.app.constants.OrderStatus;
+import com.deligo.app.constants.PaymentStatus;
 import com.deligo.app.models.CartItem;
 import com.deligo.app.models.Order;
+import com.deligo.app.models.OrderPage;
 import com.deligo.app.models.OrderDetail;
 import com.deligo.app.repositories.CartRepository;
 import com.deligo.app.repositories.OrderRepository;
 import com.google.firebase.auth.FirebaseAuth;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class OrderViewModel extends ViewModel {
@@ -25,6 +29,16 @@ public class OrderViewModel extends ViewModel {
     private final CartRepository cartRepository;
     private final FirebaseAuth firebaseAuth;
 
+    // Order history paging
+    private static final int ORDER_PAGE_SIZE = 20;
+    private Order lastHistoryOrder;
+    private boolean hasMoreHistory;
+    private boolean loadingMoreHistory;
+    private int historyGeneration;
+
+    // Idempotency key of the checkout in progress
+    private String pendingOrderId;
+
     public OrderViewModel(OrderRepository orderRepository, CartRepository cartRepository) {
         this.orderRepository = orderRepository;
         this.cartRepository = cartRepository;
@@ -67,11 +81,22 @@ public class OrderViewModel extends ViewModel {
             return;
         }
 
+        // Ignore repeated taps while an order is being placed
+        if (Boolean.TRUE.equals(isLoading.getValue())) {
+            return;
+        }
+
+        // Keep the same order id across retries so a checkout that already landed isn't placed twice
+        if (pendingOrderId == null) {
+            pendingOrderId = orderRepository.newOrderId();
+        }
+
         isLoading.setValue(true);
-        orderRepository.createOrder(userId, phoneNumber, deliveryAddress, paymentMethod, note, cartItems,
+        orderRepository.createOrder(pendingOrderId, userId, phoneNumber, deliveryAddress, paymentMethod, note, cartItems,
                 new OrderRepository.DataCallback<Order>() {
                     @Override
                     public void onSuccess(Order order) {
+                        pendingOrderId = null;
                         // Clear cart after successful order creation
                         cartRepository.clearCart(userId, new CartRepository.ActionCallback() {
                             @Override
@@ -107,22 +132,64 @@ public class OrderViewModel extends ViewModel {
             return;
         }
 
+        // Start over from the newest page; any page still loading for the old list is ignored
+        int generation = ++historyGeneration;
+        loadingMoreHistory = false;
         isLoading.setValue(true);
-        orderRepository.getOrdersByCustomer(userId, new OrderRepository.DataCallback<List<Order>>() {
+        orderRepository.getOrdersByCustomer(userId, null, ORDER_PAGE_SIZE, new OrderRepository.DataCallback<OrderPage>() {
             @Override
-            public void onSuccess(List<Order> orders) {
-                orderHistory.setValue(orders);
+            public void onSuccess(OrderPage page) {
+                if (generation != historyGeneration) return;
+                lastHistoryOrder = page.getLastOrder();
+                hasMoreHistory = page.hasMore();
+                orderHistory.setValue(new ArrayList<>(page.getOrders()));
                 isLoading.setValue(false);
             }
 
             @Override
             public void onError(String message) {
+                if (generation != historyGeneration) return;
                 errorMessage.setValue(message);
                 isLoading.setValue(false);
             }
         });
     }
 
+    public void loadMoreOrderHistory() {
+        String userId = firebaseAuth.getCurrentUser() != null ? firebaseAuth.getCurrentUser().getUid() : null;
+        if (userId == null || !hasMoreHistory || loadingMoreHistory || lastHistoryOrder == null) {
+            return;
+        }
+
+        int generation = historyGeneration;
+        loadingMoreHistory = true;
+        orderRepository.getOrdersByCustomer(userId, lastHistoryOrder, ORDER_PAGE_SIZE, new OrderRepository.DataCallback<OrderPage>() {
+            @Override
+            public void onSuccess(OrderPage page) {
+                if (generation != historyGeneration) return;
+                loadingMoreHistory = false;
+                if (page.getLastOrder() != null) {
+                    lastHistoryOrder = page.getLastOrder();
+                }
+                hasMoreHistory = page.hasMore();
+
+                List<Order> combined = new ArrayList<>();
+                if (orderHistory.getValue() != null) {
+                    combined.addAll(orderHistory.getValue());
+                }
+                combined.addAll(page.getOrders());
+                orderHistory.setValue(combined);
+            }
+
+            @Override
+            public void onError(String message) {
+                if (generation != historyGeneration) return;
+                loadingMoreHistory = false;
+                errorMessage.setValue(message);
+            }
+        });
+    }
+
     public void loadOrderDetails(String orderId) {
         isLoading.setValue(true);
         
@@ -132,8 +199,8 @@ public class OrderViewModel extends ViewModel {
             public void onSuccess(Order order) {
                 currentOrder.setValue(order);
                 
-                // Load order details
-                orderRepository.getOrderDetails(orderId, new OrderRepository.DataCallback<List<OrderDetail>>() {
+                // Load order details (embedded in the order we already have)
+                orderRepository.getOrderDetails(order, new OrderRepository.DataCallback<List<OrderDetail>>() {
                     @Override
                     public void onSuccess(List<OrderDetail> details) {
                         orderDetails.setValue(details);
@@ -158,13 +225,21 @@ public class OrderViewModel extends ViewModel {
 
     public void cancelOrder(String orderId) {
         isLoading.setValue(true);
-        orderRepository.updateOrderAndPaymentStatus(orderId, "Bị huỷ", "Bị huỷ", 
-                new OrderRepository.ActionCallback() {
+        // Customers may only cancel while the order is still pending; if the shop accepted it
+        // in the meantime the transaction writes nothing and the current order is shown
+        orderRepository.transitionOrderStatus(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED,
+                PaymentStatus.CANCELLED.getVietnameseName(), new OrderRepository.TransitionCallback() {
+                    @Override
+                    public void onSuccess(Order order) {
+                        currentOrder.setValue(order);
+                        isLoading.setValue(false);
+                    }
+
                     @Override
-                    public void onSuccess() {
+                    public void onConflict(Order order) {
+                        currentOrder.setValue(order);
+                        errorMessage.setValue("Đơn hàng đã được cửa hàng xử lý, không thể huỷ");
                         isLoading.setValue(false);
-                        // Reload order details to show updated status
-                        loadOrderDetails(orderId);
                     }
 
                     @Override
@@ -5,6 +5,7 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.deligo.app.models.Order;
+import com.deligo.app.models.OrderPage;
 import com.deligo.app.models.User;
 import com.deligo.app.repositories.OrderRepository;
 import com.deligo.app.repositories.ProfileRepository;
@@ -23,6 +24,8 @@ public class ProfileViewModel extends ViewModel {
     private final OrderRepository orderRepository;
     private final FirebaseAuth firebaseAuth;
 
+    private static final int RECENT_ORDERS_LIMIT = 20;
+
     public ProfileViewModel(ProfileRepository profileRepository, OrderRepository orderRepository) {
         this.profileRepository = profileRepository;
         this.orderRepository = orderRepository;
@@ -106,10 +109,11 @@ public class ProfileViewModel extends ViewModel {
         }
 
         isLoading.setValue(true);
-        orderRepository.getOrdersByCustomer(userId, new OrderRepository.DataCallback<List<Order>>() {
+        // Most recent orders only; the full history is paged in OrderViewModel
+        orderRepository.getOrdersByCustomer(userId, null, RECENT_ORDERS_LIMIT, new OrderRepository.DataCallback<OrderPage>() {
             @Override
-            public void onSuccess(List<Order> orders) {
-                orderHistory.setValue(orders);
+            public void onSuccess(OrderPage page) {
+                orderHistory.setValue(page.getOrders());
                 isLoading.setValue(false);
             }
 
@@ -6,47 +6,30 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import com.deligo.app.models.FoodSales;
+import com.deligo.app.models.StatisticsSnapshot;
 import com.deligo.app.repositories.StatisticsRepository;
 
 import java.util.Calendar;
-import java.util.List;
-import java.util.Map;
 
 public class StatisticsViewModel extends ViewModel {
-    private final MutableLiveData<Double> totalRevenue = new MutableLiveData<>();
-    private final MutableLiveData<Integer> orderCount = new MutableLiveData<>();
-    private final MutableLiveData<Map<String, Integer>> ordersByStatus = new MutableLiveData<>();
-    private final MutableLiveData<List<FoodSales>> topSellingFoods = new MutableLiveData<>();
-    private final MutableLiveData<Map<String, Double>> dailyRevenue = new MutableLiveData<>();
+    private static final int TOP_FOODS_LIMIT = 10;
+
+    private final MutableLiveData<StatisticsSnapshot> statistics = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
 
     private final StatisticsRepository statisticsRepository;
 
+    // Incremented per load so a slow response for an old period can't overwrite a newer one
+    private int requestSequence = 0;
+
     public StatisticsViewModel(StatisticsRepository statisticsRepository) {
         this.statisticsRepository = statisticsRepository;
         isLoading.setValue(false);
     }
 
-    public LiveData<Double> getTotalRevenue() {
-        return totalRevenue;
-    }
-
-    public LiveData<Integer> getOrderCount() {
-        return orderCount;
-    }
-
-    public LiveData<Map<String, Integer>> getOrdersByStatus() {
-        return ordersByStatus;
-    }
-
-    public LiveData<List<FoodSales>> getTopSellingFoods() {
-        return topSellingFoods;
-    }
-
-    public LiveData<Map<String, Double>> getDailyRevenue() {
-        return dailyRevenue;
+    public LiveData<StatisticsSnapshot> getStatistics() {
+        return statistics;
     }
 
     public LiveData<String> getErrorMessage() {
@@ -64,81 +47,25 @@ public class StatisticsViewModel extends ViewModel {
         long[] dateRange = calculateDateRange(period);
         long startDate = dateRange[0];
         long endDate = dateRange[1];
+        int request = ++requestSequence;
 
-        // Load total revenue
-        statisticsRepository.getTotalRevenue(startDate, endDate, new StatisticsRepository.DataCallback<Double>() {
-            @Override
-            public void onSuccess(Double data) {
-                totalRevenue.setValue(data);
-            }
-
+        statisticsRepository.getStatisticsSnapshot(startDate, endDate, TOP_FOODS_LIMIT,
+                new StatisticsRepository.DataCallback<StatisticsSnapshot>() {
             @Override
-            public void onError(String message) {
-                errorMessage.setValue("Failed to load revenue: " + message);
-
-                // 🔥 Log full error + index URL
-                Log.e("FIRESTORE_INDEX", "Revenue error: " + message);
-                String url = extractIndexUrl(message);
-                if (url != null) {
-                    Log.e("FIRESTORE_INDEX", "👉 CREATE INDEX HERE:\n" + url);
-                }
-            }
-        });
-
-        // Load orders by status
-        statisticsRepository.getOrderCountByStatus(startDate, endDate, new StatisticsRepository.DataCallback<Map<String, Integer>>() {
-            @Override
-            public void onSuccess(Map<String, Integer> data) {
-                ordersByStatus.setValue(data);
-
-                int total = 0;
-                for (Integer count : data.values()) total += count;
-                orderCount.setValue(total);
-            }
-
-            @Override
-            public void onError(String message) {
-                errorMessage.setValue("Failed to load order statistics: " + message);
-
-                Log.e("FIRESTORE_INDEX", "Order status error: " + message);
-                String url = extractIndexUrl(message);
-                if (url != null) {
-                    Log.e("FIRESTORE_INDEX", "👉 CREATE INDEX HERE:\n" + url);
-                }
-            }
-        });
-
-        // Load top selling foods
-        statisticsRepository.getTopSellingFoods(startDate, endDate, 10, new StatisticsRepository.DataCallback<List<FoodSales>>() {
-            @Override
-            public void onSuccess(List<FoodSales> data) {
-                topSellingFoods.setValue(data);
+            public void onSuccess(StatisticsSnapshot data) {
+                if (request != requestSequence) return;
+                statistics.setValue(data);
                 isLoading.setValue(false);
             }
 
             @Override
             public void onError(String message) {
-                errorMessage.setValue("Failed to load top selling foods: " + message);
+                if (request != requestSequence) return;
+                errorMessage.setValue("Failed to load statistics: " + message);
                 isLoading.setValue(false);
 
-                Log.e("FIRESTORE_INDEX", "Top food error: " + message);
-                String url = extractIndexUrl(message);
-                if (url != null) {
-                    Log.e("FIRESTORE_INDEX", "👉 CREATE INDEX HERE:\n" + url);
-                }
-            }
-        });
-
-        // Load daily revenue for trend chart
-        statisticsRepository.getDailyRevenue(startDate, endDate, new StatisticsRepository.DataCallback<Map<String, Double>>() {
-            @Override
-            public void onSuccess(Map<String, Double> data) {
-                dailyRevenue.setValue(data);
-            }
-
-            @Override
-            public void onError(String message) {
-                Log.e("FIRESTORE_INDEX", "Daily revenue error: " + message);
+                // 🔥 Log full error + index URL
+                Log.e("FIRESTORE_INDEX", "Statistics error: " + message);
                 String url = extractIndexUrl(message);
                 if (url != null) {
                     Log.e("FIRESTORE_INDEX", "👉 CREATE INDEX HERE:\n" + url);
@@ -0,0 +1,102 @@
+package com.deligo.app.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TimeOrderedOrderIdGeneratorTest {
+    private static final TimeZone VIETNAM = TimeZone.getTimeZone("Asia/Ho_Chi_Minh");
+
+    @Test
+    public void format_hasDatePrefixAndNode() {
+        // 2026-10-17 10:00:00 in Vietnam (UTC+7)
+        long timestamp = 1792206000000L;
+        TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator("0c4xk9m2x7p3", () -> timestamp, VIETNAM);
+
+        String id = generator.nextId();
+
+        assertTrue(id, id.startsWith("DH20261017-"));
+        assertTrue(id, id.endsWith("0C4XK9M2X7P3"));
+        assertEquals(31, id.length());
+    }
+
+    @Test
+    public void nextId_neverRepeatsWhenClockStandsStillOrGoesBack() {
+        long[] now = {1792206000000L};
+        TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator("node", () -> now[0], VIETNAM);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        // Well past the per-millisecond sequence, then with the clock moved back
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(ids.add(generator.nextId()));
+        }
+        now[0] -= 60_000;
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(ids.add(generator.nextId()));
+        }
+    }
+
+    @Test
+    public void nextId_isUniqueAcrossThreadsAndNodes() throws InterruptedException {
+        int threadsPerNode = 4;
+        int idsPerThread = 250_000;
+        String[] nodes = {"a001", "a002"};
+
+        // Every node shares one clock, the worst case for cross-device collisions
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        Set<String> ids = ConcurrentHashMap.newKeySet(nodes.length * threadsPerNode * idsPerThread);
+        AtomicLong duplicates = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (String node : nodes) {
+            TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator(node, clock::get, VIETNAM);
+            for (int t = 0; t < threadsPerNode; t++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < idsPerThread; i++) {
+                        if (!ids.add(generator.nextId())) {
+                            duplicates.incrementAndGet();
+                        }
+                        if (i % 1000 == 0) {
+                            clock.incrementAndGet();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, duplicates.get());
+        assertEquals(nodes.length * threadsPerNode * idsPerThread, ids.size());
+    }
+
+    @Test
+    public void randomNodeId_hasFixedLengthAndDoesNotRepeat() {
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            String node = TimeOrderedOrderIdGenerator.randomNodeId();
+            assertEquals(TimeOrderedOrderIdGenerator.NODE_LENGTH, node.length());
+            assertTrue(node, nodes.add(node));
+        }
+    }
+}